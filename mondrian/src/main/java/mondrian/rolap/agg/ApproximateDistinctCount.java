@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.daanse.olap.api.Context;
+
+import mondrian.spi.impl.HyperLogLog;
+
+/**
+ * Approximate distinct-count measures whose cells hold {@link HyperLogLog}
+ * sketches instead of exact counts.
+ *
+ * <p>An exact distinct count of a coarser cell cannot be computed from the
+ * counts of finer cells, so every coarser grain needs its own
+ * {@code count(distinct)} statement. Sketches, unlike counts, can be merged:
+ * the sketch of a coarser cell is the union of the sketches of the finer
+ * cells it covers, whether they were loaded by this server or read from an
+ * external segment cache. {@link mondrian.spi.impl.SegmentBodyCodec} stores
+ * them compactly.
+ *
+ * <p>Estimates are approximate, so measures opt in explicitly through
+ * {@link #MEASURES}, each with its own error bound or with
+ * {@link #ERROR_BOUND}.
+ */
+public final class ApproximateDistinctCount {
+
+    /**
+     * Context configuration key for the comma-separated list of
+     * distinct-count measures computed from sketches. Each entry is
+     * {@code cube.measure} or {@code cube.measure=errorBound}. Empty (the
+     * default) means every distinct count is exact.
+     */
+    public static final String MEASURES = "approximateDistinctCountMeasures";
+    public static final String MEASURES_DEFAULT_VALUE = "";
+
+    /**
+     * Context configuration key for the relative error of measures listed
+     * in {@link #MEASURES} without an error bound of their own.
+     */
+    public static final String ERROR_BOUND =
+        "approximateDistinctCountErrorBound";
+    public static final Double ERROR_BOUND_DEFAULT_VALUE = 0.02;
+
+    private ApproximateDistinctCount() {
+    }
+
+    /**
+     * Returns the relative error allowed for a distinct-count measure, or
+     * null if the measure has not opted in and must be counted exactly.
+     */
+    public static Double errorBound(
+        Context<?> context,
+        String cube,
+        String measure)
+    {
+        final String measures = context.getConfigValue(
+            MEASURES, MEASURES_DEFAULT_VALUE, String.class);
+        if (measures == null || measures.isBlank()) {
+            return null;
+        }
+        final String qualifiedMeasure = cube + "." + measure;
+        for (String entry : measures.split(",")) {
+            final int equals = entry.indexOf('=');
+            final String name =
+                (equals < 0 ? entry : entry.substring(0, equals)).trim();
+            if (!name.equals(qualifiedMeasure)) {
+                continue;
+            }
+            if (equals >= 0) {
+                return Double.valueOf(entry.substring(equals + 1).trim());
+            }
+            return context.getConfigValue(
+                ERROR_BOUND, ERROR_BOUND_DEFAULT_VALUE, Double.class);
+        }
+        return null;
+    }
+
+    /**
+     * Creates an empty sketch for a cell of a measure with the given error
+     * bound. All cells of a measure must use the same bound, so that their
+     * sketches can be merged.
+     */
+    public static HyperLogLog newSketch(double errorBound) {
+        return HyperLogLog.forRelativeError(errorBound);
+    }
+
+    /**
+     * Rolls sketches of fine-grained cells up to a coarser grain.
+     *
+     * @param cells Sketch of each fine-grained cell
+     * @param coarser Maps a fine-grained cell to the coarser cell that
+     *     covers it
+     * @return Sketch of each coarser cell; the sketches of {@code cells} are
+     *     not modified
+     */
+    public static <F, K> Map<K, HyperLogLog> rollup(
+        Map<F, HyperLogLog> cells,
+        Function<? super F, ? extends K> coarser)
+    {
+        final Map<K, HyperLogLog> result = new HashMap<>();
+        for (Map.Entry<F, HyperLogLog> entry : cells.entrySet()) {
+            result.merge(
+                coarser.apply(entry.getKey()),
+                entry.getValue().copy(),
+                (sketch, other) -> {
+                    sketch.merge(other);
+                    return sketch;
+                });
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of a distinct-count cell: the estimate if the cell
+     * holds a sketch, otherwise the value itself.
+     */
+    public static Object cellValue(Object value) {
+        return value instanceof HyperLogLog sketch ? sketch.estimate() : value;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether batches of cell requests against the same star are cheaper
+ * to load as one GROUPING SETS statement or as separate statements, as
+ * {@code FastBatchingCellReader} does when it groups batches into composite
+ * batches.
+ *
+ * <p>A statement costs a fixed overhead plus the time to scan the fact
+ * table. Separate statements scan it once each. A GROUPING SETS statement
+ * scans it once but pays, for each grouping set after the first, a share of
+ * another scan: the penalty. Both the time per scanned row and the penalty
+ * are learned per star from the latencies passed to
+ * {@link #recordQuery(String, int, long, long)}; until a star has been
+ * observed, a penalty of {@link #DEFAULT_PENALTY} favors merging, as the
+ * rule-based grouping did. The number of fact rows is estimated by a
+ * {@link StatisticsProvider}.
+ *
+ * <p>The penalty is only observed on merged statements. So that a penalty
+ * learned under a past load does not stop merging for good, every
+ * {@link #EXPLORATION_INTERVAL}th merge refused in a row on a star is made
+ * anyway, and its latency measures the penalty again.
+ *
+ * <p>Each decision is logged at debug level with both estimated costs.
+ */
+public class BatchCostModel {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(BatchCostModel.class);
+
+    /**
+     * Share of a scan that each grouping set after the first adds to a
+     * GROUPING SETS statement of a star not observed yet.
+     */
+    public static final double DEFAULT_PENALTY = 0.5;
+
+    /**
+     * Fixed cost, in nanoseconds, of a statement: round trip, parsing and
+     * planning.
+     */
+    public static final long DEFAULT_OVERHEAD_NANOS = 2_000_000L;
+
+    /**
+     * Number of merges refused in a row on a star after which one is made
+     * anyway, to measure the penalty again.
+     */
+    public static final int EXPLORATION_INTERVAL = 50;
+
+    private static final double DEFAULT_NANOS_PER_ROW = 50;
+
+    /**
+     * Weight of the latest observation in the moving averages.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final long overheadNanos;
+
+    private final Map<String, Star> stars = new ConcurrentHashMap<>();
+
+    public BatchCostModel() {
+        this(DEFAULT_OVERHEAD_NANOS);
+    }
+
+    public BatchCostModel(long overheadNanos) {
+        this.overheadNanos = overheadNanos;
+    }
+
+    /**
+     * Records the latency of a segment load.
+     *
+     * @param star Fact table of the star
+     * @param groupingSetCount Number of grouping sets of the statement, 1
+     *     for a plain GROUP BY
+     * @param factRows Estimated number of rows of the fact table
+     * @param nanos Time the statement took
+     */
+    public void recordQuery(
+        String star,
+        int groupingSetCount,
+        long factRows,
+        long nanos)
+    {
+        if (factRows <= 0 || groupingSetCount < 1) {
+            return;
+        }
+        final Star s = stars.computeIfAbsent(star, k -> new Star());
+        final double scanNanos = Math.max(nanos - overheadNanos, 0);
+        synchronized (s) {
+            if (groupingSetCount == 1) {
+                s.nanosPerRow = s.scans == 0
+                    ? scanNanos / factRows
+                    : average(s.nanosPerRow, scanNanos / factRows);
+                ++s.scans;
+            } else if (s.scans > 0) {
+                // Without a plain scan to compare with, the share of the
+                // grouping sets cannot be told apart from the scan itself.
+                final double singleScan = s.nanosPerRow * factRows;
+                final double penalty = singleScan <= 0
+                    ? DEFAULT_PENALTY
+                    : Math.max(scanNanos / singleScan - 1, 0)
+                        / (groupingSetCount - 1);
+                s.penalty = s.groupingSetQueries == 0
+                    ? penalty
+                    : average(s.penalty, penalty);
+                ++s.groupingSetQueries;
+            }
+        }
+    }
+
+    /**
+     * Returns whether batches against a star are cheaper to load as one
+     * GROUPING SETS statement than as one statement each.
+     *
+     * <p>With overhead {@code o} per statement and scan time {@code s}, the
+     * {@code n} separate statements cost {@code n * (o + s)} and the merged
+     * one {@code o + s * (1 + penalty * (n - 1))}. The batches are merged if
+     * {@code penalty <= 1 + o / s}, whatever their number; the number of
+     * batches only scales the difference between the two costs.
+     *
+     * @param star Fact table of the star
+     * @param factRows Estimated number of rows of the fact table; if not
+     *     positive, the batches are merged
+     * @param batchCount Number of batches
+     */
+    public boolean shouldMerge(String star, long factRows, int batchCount) {
+        if (batchCount < 2 || factRows <= 0) {
+            return true;
+        }
+        final Star s = stars.get(star);
+        if (s == null) {
+            return decide(
+                star, factRows, batchCount, DEFAULT_NANOS_PER_ROW,
+                DEFAULT_PENALTY, false);
+        }
+        synchronized (s) {
+            final double nanosPerRow =
+                s.scans == 0 ? DEFAULT_NANOS_PER_ROW : s.nanosPerRow;
+            final double penalty = s.groupingSetQueries == 0
+                ? DEFAULT_PENALTY
+                : s.penalty;
+            final boolean explore = s.refusals + 1 >= EXPLORATION_INTERVAL;
+            final boolean merge = decide(
+                star, factRows, batchCount, nanosPerRow, penalty, explore);
+            s.refusals = merge ? 0 : s.refusals + 1;
+            return merge;
+        }
+    }
+
+    private boolean decide(
+        String star,
+        long factRows,
+        int batchCount,
+        double nanosPerRow,
+        double penalty,
+        boolean explore)
+    {
+        final double scan = nanosPerRow * factRows;
+        final double separate = batchCount * (overheadNanos + scan);
+        final double merged =
+            overheadNanos + scan * (1 + penalty * (batchCount - 1));
+        final boolean cheaper = merged <= separate;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                (cheaper ? "Merging " : explore ? "Exploring " : "Not merging ")
+                    + batchCount + " batches on " + star + ": estimated "
+                    + Math.round(merged / 1e6) + "ms merged, "
+                    + Math.round(separate / 1e6) + "ms separate");
+        }
+        return cheaper || explore;
+    }
+
+    /**
+     * Returns whether batches against a star are cheaper to load as one
+     * GROUPING SETS statement, estimating the size of the fact table with a
+     * statistics provider.
+     */
+    public boolean shouldMerge(
+        StatisticsProvider statisticsProvider,
+        Context context,
+        String catalog,
+        String schema,
+        String factTable,
+        int batchCount,
+        ExecutionImpl execution)
+    {
+        return shouldMerge(
+            factTable,
+            statisticsProvider.getTableCardinality(
+                context, catalog, schema, factTable, execution),
+            batchCount);
+    }
+
+    /**
+     * Returns the learned penalty of grouping sets on a star, or
+     * {@link #DEFAULT_PENALTY} if none was observed.
+     */
+    public double getPenalty(String star) {
+        final Star s = stars.get(star);
+        if (s == null) {
+            return DEFAULT_PENALTY;
+        }
+        synchronized (s) {
+            return s.groupingSetQueries == 0 ? DEFAULT_PENALTY : s.penalty;
+        }
+    }
+
+    private static double average(double current, double observed) {
+        return current + SMOOTHING * (observed - current);
+    }
+
+    /**
+     * Observed costs of one star.
+     */
+    private static class Star {
+        double nanosPerRow;
+        int scans;
+        double penalty;
+        int groupingSetQueries;
+        int refusals;
+    }
+}
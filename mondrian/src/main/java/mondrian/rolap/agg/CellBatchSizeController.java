@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the number of cells to batch together per cube, in place of the
+ * single static {@code cellBatchSize}.
+ *
+ * <p>Each cube starts at the initial size. After every batch the caller
+ * reports how long its SQL took, how many rows it returned and how many
+ * bytes its segments hold. A batch that took longer than the target
+ * latency, held more than the memory limit, or returned more rows per
+ * requested cell than the limit halves the size; the last means the
+ * segments of the batch load far more than was asked for. A batch well
+ * within all targets grows it by half. The size always stays within the
+ * configured bounds. Increasing gently and decreasing sharply makes the
+ * size settle just below the point where batches become too expensive,
+ * without overshooting for long.
+ *
+ * <p>{@link #getBatchSizes()} reports the current size of every cube.
+ */
+public class CellBatchSizeController {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(CellBatchSizeController.class);
+
+    public static final int DEFAULT_MINIMUM = 100;
+    public static final int DEFAULT_MAXIMUM = 100_000;
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 2000;
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L << 20;
+    public static final long DEFAULT_MAXIMUM_ROWS_PER_CELL = 100;
+
+    private final int minimum;
+    private final int maximum;
+    private final int initial;
+    private final long targetLatencyNanos;
+    private final long maximumBytes;
+    private final long maximumRowsPerCell;
+
+    private final Map<String, Integer> sizes = new ConcurrentHashMap<>();
+
+    public CellBatchSizeController(int initial) {
+        this(
+            DEFAULT_MINIMUM,
+            DEFAULT_MAXIMUM,
+            initial,
+            DEFAULT_TARGET_LATENCY_MILLIS,
+            DEFAULT_MAXIMUM_BYTES);
+    }
+
+    /**
+     * Creates a controller.
+     *
+     * @param minimum Smallest batch size
+     * @param maximum Largest batch size
+     * @param initial Batch size of a cube not observed yet, for instance the
+     *     configured {@code cellBatchSize}
+     * @param targetLatencyMillis Time the SQL of one batch should take at
+     *     most
+     * @param maximumBytes Number of bytes the segments of one batch should
+     *     hold at most
+     */
+    public CellBatchSizeController(
+        int minimum,
+        int maximum,
+        int initial,
+        long targetLatencyMillis,
+        long maximumBytes)
+    {
+        this(
+            minimum,
+            maximum,
+            initial,
+            targetLatencyMillis,
+            maximumBytes,
+            DEFAULT_MAXIMUM_ROWS_PER_CELL);
+    }
+
+    /**
+     * Creates a controller.
+     *
+     * @param minimum Smallest batch size
+     * @param maximum Largest batch size
+     * @param initial Batch size of a cube not observed yet, for instance the
+     *     configured {@code cellBatchSize}
+     * @param targetLatencyMillis Time the SQL of one batch should take at
+     *     most
+     * @param maximumBytes Number of bytes the segments of one batch should
+     *     hold at most
+     * @param maximumRowsPerCell Number of rows the SQL of one batch should
+     *     return per requested cell at most
+     */
+    public CellBatchSizeController(
+        int minimum,
+        int maximum,
+        int initial,
+        long targetLatencyMillis,
+        long maximumBytes,
+        long maximumRowsPerCell)
+    {
+        if (minimum < 1 || maximum < minimum) {
+            throw new IllegalArgumentException(
+                "Invalid batch size bounds " + minimum + ".." + maximum);
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.initial = Math.max(minimum, Math.min(maximum, initial));
+        this.targetLatencyNanos = targetLatencyMillis * 1_000_000L;
+        this.maximumBytes = maximumBytes;
+        this.maximumRowsPerCell = maximumRowsPerCell;
+    }
+
+    /**
+     * Returns the number of cells to batch together for a cube.
+     */
+    public int getBatchSize(String cube) {
+        return sizes.getOrDefault(cube, initial);
+    }
+
+    /**
+     * Records the cost of a batch and adjusts the batch size of its cube.
+     *
+     * @param cube Cube the batch was for
+     * @param cells Number of cells requested by the batch
+     * @param rows Number of rows its SQL returned
+     * @param nanos Time its SQL took
+     * @param bytes Number of bytes its segments hold
+     */
+    public void recordBatch(
+        String cube,
+        int cells,
+        long rows,
+        long nanos,
+        long bytes)
+    {
+        final int size = sizes.compute(cube, (c, current) -> {
+            final int old = current == null ? initial : current;
+            final long rowLimit = Math.max(cells, 1) * maximumRowsPerCell;
+            if (nanos > targetLatencyNanos
+                || bytes > maximumBytes
+                || rows > rowLimit)
+            {
+                return Math.max(minimum, old / 2);
+            }
+            // Grow only if the batch was full, or a larger one would not
+            // have asked for more.
+            if (cells >= old
+                && nanos < targetLatencyNanos / 2
+                && bytes < maximumBytes / 2
+                && rows < rowLimit / 2)
+            {
+                return (int) Math.min(maximum, old + Math.max(old / 2, 1L));
+            }
+            return old;
+        });
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Cell batch size of " + cube + " is " + size + " after "
+                    + cells + " cells, " + rows + " rows, "
+                    + nanos / 1_000_000 + "ms, " + bytes + " bytes");
+        }
+    }
+
+    /**
+     * Returns the current batch size of every observed cube.
+     */
+    public Map<String, Integer> getBatchSizes() {
+        return new TreeMap<>(sizes);
+    }
+
+    /**
+     * Forgets what was observed; every cube starts at the initial size
+     * again.
+     */
+    public void reset() {
+        sizes.clear();
+    }
+}
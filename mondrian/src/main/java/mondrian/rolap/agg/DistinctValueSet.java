@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Sorted set of the distinct key values of one segment axis, as collected
+ * by {@code SegmentLoader.processData}, that is cheaper to fill than a
+ * {@link TreeSet}.
+ *
+ * <p>Values are collected unsorted: {@link Integer}, {@link Long} and
+ * {@link Double} values in an open-addressing hash set of primitive
+ * {@code long}s, {@link String} values in a hash set. The set is sorted
+ * once, when it is first read after a change. Its contents and iteration
+ * order are those of a {@link TreeSet} with natural ordering; in
+ * particular, null values and values of different classes that a
+ * {@link TreeSet} would reject are rejected too. A set that receives any
+ * other kind of value falls back to a {@link TreeSet}.
+ *
+ * <p>The set supports what segment loading does with it: adding, lookup,
+ * iteration, {@link #first()}, {@link #last()} and {@link #clear()}. It
+ * departs from the {@link SortedSet} contract in two ways:
+ * <ul>
+ * <li>Values cannot be removed. {@link #remove(Object)}, the iterator's
+ *     {@code remove} and the bulk operations built on them throw
+ *     {@link UnsupportedOperationException}.</li>
+ * <li>{@link #subSet}, {@link #headSet} and {@link #tailSet} return
+ *     unmodifiable copies of the current contents, not views backed by this
+ *     set; values added later do not show in them.</li>
+ * </ul>
+ *
+ * <p>{@link #workspace(int)} can be returned from
+ * {@code SegmentLoader.getDistinctValueWorkspace}.
+ */
+public final class DistinctValueSet
+    extends AbstractSet<Comparable>
+    implements SortedSet<Comparable>
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private enum Kind {
+        EMPTY, INT, LONG, DOUBLE, STRING, OTHER
+    }
+
+    private Kind kind = Kind.EMPTY;
+
+    // Primitive values, as long (doubles by their bits). Slot value 0
+    // means empty; the value 0 itself is tracked by containsZero.
+    private long[] slots;
+    private boolean containsZero;
+    private int primitiveCount;
+
+    private HashSet<String> strings;
+    private TreeSet<Comparable> others;
+
+    private Comparable[] sorted;
+
+    /**
+     * Creates a workspace of distinct value sets, one per axis.
+     */
+    public static SortedSet<Comparable>[] workspace(int arity) {
+        @SuppressWarnings("unchecked")
+        final SortedSet<Comparable>[] sets = new SortedSet[arity];
+        for (int i = 0; i < arity; i++) {
+            sets[i] = new DistinctValueSet();
+        }
+        return sets;
+    }
+
+    @Override
+    public boolean add(Comparable value) {
+        Objects.requireNonNull(value);
+        final Kind valueKind = kindOf(value);
+        if (kind == Kind.EMPTY) {
+            kind = valueKind;
+            if (kind == Kind.STRING) {
+                strings = new HashSet<>();
+            } else if (kind == Kind.OTHER) {
+                others = new TreeSet<>();
+            } else {
+                slots = new long[INITIAL_CAPACITY];
+            }
+        } else if (kind != valueKind && kind != Kind.OTHER) {
+            toOthers();
+        }
+        final boolean added;
+        switch (kind) {
+        case INT:
+        case LONG:
+            added = addPrimitive(((Number) value).longValue());
+            break;
+        case DOUBLE:
+            added = addPrimitive(
+                Double.doubleToLongBits(((Double) value).doubleValue()));
+            break;
+        case STRING:
+            added = strings.add((String) value);
+            break;
+        default:
+            added = others.add(value);
+            break;
+        }
+        if (added) {
+            sorted = null;
+        }
+        return added;
+    }
+
+    private static Kind kindOf(Object value) {
+        final Class<?> clazz = value.getClass();
+        if (clazz == Integer.class) {
+            return Kind.INT;
+        }
+        if (clazz == Long.class) {
+            return Kind.LONG;
+        }
+        if (clazz == Double.class) {
+            return Kind.DOUBLE;
+        }
+        if (clazz == String.class) {
+            return Kind.STRING;
+        }
+        return Kind.OTHER;
+    }
+
+    /**
+     * Moves the values collected so far into a {@link TreeSet}, which then
+     * receives all further values.
+     */
+    private void toOthers() {
+        final TreeSet<Comparable> tree = new TreeSet<>();
+        for (Comparable value : sortedValues()) {
+            tree.add(value);
+        }
+        kind = Kind.OTHER;
+        others = tree;
+        slots = null;
+        strings = null;
+        primitiveCount = 0;
+        containsZero = false;
+        sorted = null;
+    }
+
+    private boolean addPrimitive(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            ++primitiveCount;
+            return true;
+        }
+        if ((primitiveCount + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        if (!insert(slots, value)) {
+            return false;
+        }
+        ++primitiveCount;
+        return true;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        final int mask = table.length - 1;
+        int i = (int) mix(value) & mask;
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        return true;
+    }
+
+    private boolean containsPrimitive(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        final int mask = slots.length - 1;
+        int i = (int) mix(value) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private void rehash(int capacity) {
+        final long[] table = new long[capacity];
+        for (long value : slots) {
+            if (value != 0) {
+                insert(table, value);
+            }
+        }
+        slots = table;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Returns the values in ascending order, sorting them if they changed
+     * since the last call.
+     */
+    private Comparable[] sortedValues() {
+        if (sorted != null) {
+            return sorted;
+        }
+        switch (kind) {
+        case EMPTY:
+            sorted = new Comparable[0];
+            break;
+        case INT:
+        case LONG: {
+            final long[] values = primitiveValues();
+            Arrays.sort(values);
+            sorted = new Comparable[values.length];
+            for (int i = 0; i < values.length; i++) {
+                sorted[i] = kind == Kind.INT
+                    ? (Comparable) Integer.valueOf((int) values[i])
+                    : (Comparable) Long.valueOf(values[i]);
+            }
+            break;
+        }
+        case DOUBLE: {
+            final long[] bits = primitiveValues();
+            final double[] values = new double[bits.length];
+            for (int i = 0; i < bits.length; i++) {
+                values[i] = Double.longBitsToDouble(bits[i]);
+            }
+            Arrays.sort(values);
+            sorted = new Comparable[values.length];
+            for (int i = 0; i < values.length; i++) {
+                sorted[i] = values[i];
+            }
+            break;
+        }
+        case STRING: {
+            final String[] values = strings.toArray(new String[0]);
+            Arrays.sort(values);
+            sorted = values;
+            break;
+        }
+        default:
+            sorted = others.toArray(new Comparable[0]);
+            break;
+        }
+        return sorted;
+    }
+
+    private long[] primitiveValues() {
+        final long[] values = new long[primitiveCount];
+        int n = 0;
+        if (containsZero) {
+            values[n++] = 0;
+        }
+        for (long value : slots) {
+            if (value != 0) {
+                values[n++] = value;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final Kind valueKind = kindOf(o);
+        if (valueKind != kind) {
+            return kind == Kind.OTHER && others.contains(o);
+        }
+        switch (kind) {
+        case INT:
+        case LONG:
+            return containsPrimitive(((Number) o).longValue());
+        case DOUBLE:
+            return containsPrimitive(
+                Double.doubleToLongBits(((Double) o).doubleValue()));
+        case STRING:
+            return strings.contains(o);
+        default:
+            return others.contains(o);
+        }
+    }
+
+    @Override
+    public int size() {
+        switch (kind) {
+        case EMPTY:
+            return 0;
+        case STRING:
+            return strings.size();
+        case OTHER:
+            return others.size();
+        default:
+            return primitiveCount;
+        }
+    }
+
+    /**
+     * Not supported; values cannot be removed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException(
+            "DistinctValueSet does not support removal");
+    }
+
+    @Override
+    public void clear() {
+        kind = Kind.EMPTY;
+        slots = null;
+        containsZero = false;
+        primitiveCount = 0;
+        strings = null;
+        others = null;
+        sorted = null;
+    }
+
+    @Override
+    public Iterator<Comparable> iterator() {
+        final Comparable[] values = sortedValues();
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < values.length;
+            }
+
+            @Override
+            public Comparable next() {
+                if (i >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                return values[i++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException(
+                    "DistinctValueSet does not support removal");
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return sortedValues().clone();
+    }
+
+    @Override
+    public Comparator<? super Comparable> comparator() {
+        return null;
+    }
+
+    @Override
+    public Comparable first() {
+        final Comparable[] values = sortedValues();
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return values[0];
+    }
+
+    @Override
+    public Comparable last() {
+        final Comparable[] values = sortedValues();
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return values[values.length - 1];
+    }
+
+    // Range views are not used while loading segments. They are answered
+    // from an unmodifiable copy, which is not backed by this set.
+
+    @Override
+    public SortedSet<Comparable> subSet(
+        Comparable fromElement,
+        Comparable toElement)
+    {
+        return Collections.unmodifiableSortedSet(
+            toTreeSet().subSet(fromElement, toElement));
+    }
+
+    @Override
+    public SortedSet<Comparable> headSet(Comparable toElement) {
+        return Collections.unmodifiableSortedSet(
+            toTreeSet().headSet(toElement));
+    }
+
+    @Override
+    public SortedSet<Comparable> tailSet(Comparable fromElement) {
+        return Collections.unmodifiableSortedSet(
+            toTreeSet().tailSet(fromElement));
+    }
+
+    private TreeSet<Comparable> toTreeSet() {
+        return new TreeSet<>(this);
+    }
+}
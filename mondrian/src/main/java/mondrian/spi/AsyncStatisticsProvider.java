@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+/**
+ * {@link StatisticsProvider} whose cardinalities can be requested without
+ * blocking the calling thread, so that the probes of a whole catalog can run
+ * concurrently.
+ *
+ * <p>The default implementations call the synchronous methods on the
+ * calling thread and return a completed future.
+ */
+public interface AsyncStatisticsProvider extends StatisticsProvider {
+
+    /**
+     * Returns the number of rows in a table, asynchronously.
+     *
+     * @see #getTableCardinality(Context, String, String, String, ExecutionImpl)
+     */
+    default CompletableFuture<Long> getTableCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return complete(
+            () -> getTableCardinality(
+                context, catalog, schema, table, execution));
+    }
+
+    /**
+     * Returns the number of rows returned by a query, asynchronously.
+     *
+     * @see #getQueryCardinality(Context, String, ExecutionImpl)
+     */
+    default CompletableFuture<Long> getQueryCardinalityAsync(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return complete(
+            () -> getQueryCardinality(context, sql, execution));
+    }
+
+    /**
+     * Returns the number of distinct values in a column, asynchronously.
+     *
+     * @see #getColumnCardinality(Context, String, String, String, String, ExecutionImpl)
+     */
+    default CompletableFuture<Long> getColumnCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return complete(
+            () -> getColumnCardinality(
+                context, catalog, schema, table, column, execution));
+    }
+
+    /**
+     * Returns the number of rows in a table, asynchronously if the provider
+     * supports it and on the calling thread otherwise.
+     */
+    static CompletableFuture<Long> getTableCardinalityAsync(
+        StatisticsProvider provider,
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        if (provider instanceof AsyncStatisticsProvider asyncProvider) {
+            return asyncProvider.getTableCardinalityAsync(
+                context, catalog, schema, table, execution);
+        }
+        return complete(
+            () -> provider.getTableCardinality(
+                context, catalog, schema, table, execution));
+    }
+
+    /**
+     * Returns the number of rows returned by a query, asynchronously if the
+     * provider supports it and on the calling thread otherwise.
+     */
+    static CompletableFuture<Long> getQueryCardinalityAsync(
+        StatisticsProvider provider,
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        if (provider instanceof AsyncStatisticsProvider asyncProvider) {
+            return asyncProvider.getQueryCardinalityAsync(
+                context, sql, execution);
+        }
+        return complete(
+            () -> provider.getQueryCardinality(context, sql, execution));
+    }
+
+    /**
+     * Returns the number of distinct values in a column, asynchronously if
+     * the provider supports it and on the calling thread otherwise.
+     */
+    static CompletableFuture<Long> getColumnCardinalityAsync(
+        StatisticsProvider provider,
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        if (provider instanceof AsyncStatisticsProvider asyncProvider) {
+            return asyncProvider.getColumnCardinalityAsync(
+                context, catalog, schema, table, column, execution);
+        }
+        return complete(
+            () -> provider.getColumnCardinality(
+                context, catalog, schema, table, column, execution));
+    }
+
+    private static CompletableFuture<Long> complete(LongSupplier supplier) {
+        try {
+            return CompletableFuture.completedFuture(supplier.getAsLong());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi;
+
+import java.util.List;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+/**
+ * {@link StatisticsProvider} that can compute the cardinalities of several
+ * columns of the same table at once, for instance in a single table scan.
+ */
+public interface BatchStatisticsProvider extends StatisticsProvider {
+
+    /**
+     * Returns the number of distinct values in each of the given columns of
+     * a table.
+     *
+     * <p>The default implementation calls
+     * {@link #getColumnCardinality(Context, String, String, String, String, ExecutionImpl)}
+     * once per column.
+     *
+     * @param context Context
+     * @param catalog Catalog name
+     * @param schema Schema name
+     * @param table Table name
+     * @param columns Column names
+     * @param execution Execution
+     * @return Cardinality of each column, in the order of {@code columns};
+     *     -1 for a column whose cardinality is not known
+     */
+    default long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        final long[] cardinalities = new long[columns.size()];
+        for (int i = 0; i < cardinalities.length; i++) {
+            cardinalities[i] = getColumnCardinality(
+                context, catalog, schema, table, columns.get(i), execution);
+        }
+        return cardinalities;
+    }
+
+    /**
+     * Returns the number of distinct values in each of the given columns of
+     * a table, in a single call if the provider supports batches and one
+     * call per column otherwise.
+     */
+    static long[] getColumnCardinalities(
+        StatisticsProvider provider,
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        if (provider instanceof BatchStatisticsProvider batchProvider) {
+            return batchProvider.getColumnCardinalities(
+                context, catalog, schema, table, columns, execution);
+        }
+        final long[] cardinalities = new long[columns.size()];
+        for (int i = 0; i < cardinalities.length; i++) {
+            cardinalities[i] = provider.getColumnCardinality(
+                context, catalog, schema, table, columns.get(i), execution);
+        }
+        return cardinalities;
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import mondrian.spi.AsyncStatisticsProvider;
+import mondrian.spi.BatchStatisticsProvider;
+
+/**
+ * Implementation of {@link StatisticsProvider} that memoizes the answers of
+ * another statistics provider, by default the
+ * {@link ChainStatisticsProvider#ChainStatisticsProvider() default chain}.
+ *
+ * <p>Results are kept per {@link Context} and keyed by catalog, schema, table
+ * and column (or by SQL string for query cardinalities). Entries expire after
+ * {@link #TIME_TO_LIVE_SECONDS} and each context holds at most
+ * {@link #MAXIMUM_SIZE} entries. Concurrent requests for the same key share a
+ * single probe: the first caller computes the value and the others wait for
+ * it. A batch of column cardinalities only passes the columns that are not
+ * cached yet on to the delegate, still as one batch.
+ *
+ * <p>Asynchronous requests share the same cache; a miss is passed on to the
+ * delegate asynchronously and the returned future is cached until it
+ * completes.
+ */
+public class CachingStatisticsProvider
+    implements BatchStatisticsProvider, AsyncStatisticsProvider
+{
+    private static final Logger LOG =
+        LoggerFactory.getLogger(CachingStatisticsProvider.class);
+
+    /**
+     * Context configuration key for the time, in seconds, a cardinality is
+     * kept before it is probed again.
+     */
+    public static final String TIME_TO_LIVE_SECONDS =
+        "statisticsCacheTimeToLiveSeconds";
+    public static final Long TIME_TO_LIVE_SECONDS_DEFAULT_VALUE = 3600L;
+
+    /**
+     * Context configuration key for the maximum number of cardinalities
+     * cached per context.
+     */
+    public static final String MAXIMUM_SIZE = "statisticsCacheMaximumSize";
+    public static final Long MAXIMUM_SIZE_DEFAULT_VALUE = 10000L;
+
+    private final StatisticsProvider delegate;
+
+    private final Cache<Context, AsyncCache<StatisticsKey, Long>> caches =
+        Caffeine.newBuilder().weakKeys().build();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public CachingStatisticsProvider() {
+        this(new ChainStatisticsProvider());
+    }
+
+    public CachingStatisticsProvider(List<StatisticsProvider> delegates) {
+        this(new ChainStatisticsProvider(delegates));
+    }
+
+    public CachingStatisticsProvider(StatisticsProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long getTableCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return lookup(
+            context,
+            StatisticsKey.ofTable(catalog, schema, table),
+            () -> delegate.getTableCardinality(
+                context, catalog, schema, table, execution));
+    }
+
+    @Override
+    public long getQueryCardinality(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return lookup(
+            context,
+            StatisticsKey.ofQuery(sql),
+            () -> delegate.getQueryCardinality(context, sql, execution));
+    }
+
+    @Override
+    public long getColumnCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return lookup(
+            context,
+            StatisticsKey.ofColumn(catalog, schema, table, column),
+            () -> delegate.getColumnCardinality(
+                context, catalog, schema, table, column, execution));
+    }
+
+    @Override
+    public long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        final AsyncCache<StatisticsKey, Long> cache =
+            caches.get(context, CachingStatisticsProvider::createCache);
+        final List<CompletableFuture<Long>> futures = new ArrayList<>();
+        final List<StatisticsKey> probeKeys = new ArrayList<>();
+        final List<String> probeColumns = new ArrayList<>();
+        final List<CompletableFuture<Long>> promises = new ArrayList<>();
+        for (String column : columns) {
+            final StatisticsKey key =
+                StatisticsKey.ofColumn(catalog, schema, table, column);
+            final CompletableFuture<Long> promise = new CompletableFuture<>();
+            final CompletableFuture<Long> existing =
+                cache.asMap().putIfAbsent(key, promise);
+            if (existing != null) {
+                hitCount.increment();
+                futures.add(existing);
+            } else {
+                missCount.increment();
+                futures.add(promise);
+                probeKeys.add(key);
+                probeColumns.add(column);
+                promises.add(promise);
+            }
+        }
+        if (!probeColumns.isEmpty()) {
+            try {
+                final long[] probed =
+                    BatchStatisticsProvider.getColumnCardinalities(
+                        delegate, context, catalog, schema, table,
+                        probeColumns, execution);
+                for (int i = 0; i < probed.length; i++) {
+                    promises.get(i).complete(probed[i]);
+                }
+            } catch (RuntimeException | Error e) {
+                for (int i = 0; i < promises.size(); i++) {
+                    cache.asMap().remove(probeKeys.get(i), promises.get(i));
+                    promises.get(i).completeExceptionally(e);
+                }
+                throw e;
+            }
+        }
+        final long[] cardinalities = new long[columns.size()];
+        for (int i = 0; i < cardinalities.length; i++) {
+            cardinalities[i] = join(futures.get(i));
+        }
+        return cardinalities;
+    }
+
+    @Override
+    public CompletableFuture<Long> getTableCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return lookupAsync(
+            context,
+            StatisticsKey.ofTable(catalog, schema, table),
+            () -> AsyncStatisticsProvider.getTableCardinalityAsync(
+                delegate, context, catalog, schema, table, execution));
+    }
+
+    @Override
+    public CompletableFuture<Long> getQueryCardinalityAsync(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return lookupAsync(
+            context,
+            StatisticsKey.ofQuery(sql),
+            () -> AsyncStatisticsProvider.getQueryCardinalityAsync(
+                delegate, context, sql, execution));
+    }
+
+    @Override
+    public CompletableFuture<Long> getColumnCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return lookupAsync(
+            context,
+            StatisticsKey.ofColumn(catalog, schema, table, column),
+            () -> AsyncStatisticsProvider.getColumnCardinalityAsync(
+                delegate, context, catalog, schema, table, column,
+                execution));
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache, including those
+     * that waited for a probe already in flight.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to ask the delegate.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Discards all cached cardinalities of the given context.
+     */
+    public void invalidate(Context context) {
+        caches.invalidate(context);
+    }
+
+    /**
+     * Discards all cached cardinalities.
+     */
+    public void invalidateAll() {
+        caches.invalidateAll();
+    }
+
+    private long lookup(
+        Context context,
+        StatisticsKey key,
+        LongSupplier probe)
+    {
+        final AsyncCache<StatisticsKey, Long> cache =
+            caches.get(context, CachingStatisticsProvider::createCache);
+        final CompletableFuture<Long> promise = new CompletableFuture<>();
+        final CompletableFuture<Long> existing =
+            cache.asMap().putIfAbsent(key, promise);
+        if (existing != null) {
+            hitCount.increment();
+            return join(existing);
+        }
+        missCount.increment();
+        try {
+            final long cardinality = probe.getAsLong();
+            promise.complete(cardinality);
+            return cardinality;
+        } catch (RuntimeException | Error e) {
+            // Do not remember failures; the next caller probes again.
+            cache.asMap().remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Long> lookupAsync(
+        Context context,
+        StatisticsKey key,
+        Supplier<CompletableFuture<Long>> probe)
+    {
+        final AsyncCache<StatisticsKey, Long> cache =
+            caches.get(context, CachingStatisticsProvider::createCache);
+        final CompletableFuture<Long> promise = new CompletableFuture<>();
+        final CompletableFuture<Long> existing =
+            cache.asMap().putIfAbsent(key, promise);
+        if (existing != null) {
+            hitCount.increment();
+            return existing;
+        }
+        missCount.increment();
+        CompletableFuture<Long> future;
+        try {
+            future = probe.get();
+        } catch (RuntimeException | Error e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((cardinality, e) -> {
+            if (e != null) {
+                // Do not remember failures; the next caller probes again.
+                cache.asMap().remove(key, promise);
+                promise.completeExceptionally(e);
+            } else {
+                promise.complete(cardinality);
+            }
+        });
+        return promise;
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static AsyncCache<StatisticsKey, Long> createCache(
+        Context<?> context)
+    {
+        final Long timeToLive = context.getConfigValue(
+            TIME_TO_LIVE_SECONDS,
+            TIME_TO_LIVE_SECONDS_DEFAULT_VALUE,
+            Long.class);
+        final Long maximumSize = context.getConfigValue(
+            MAXIMUM_SIZE,
+            MAXIMUM_SIZE_DEFAULT_VALUE,
+            Long.class);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Creating statistics cache with time to live "
+                    + timeToLive + "s and maximum size " + maximumSize);
+        }
+        return Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(timeToLive))
+            .maximumSize(maximumSize)
+            .buildAsync();
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+import mondrian.spi.AsyncStatisticsProvider;
+import mondrian.spi.BatchStatisticsProvider;
+
+/**
+ * Implementation of {@link StatisticsProvider} that asks a list of other
+ * statistics providers in order and returns the first non-negative answer,
+ * the same way the engine walks the {@code statisticsProviders} list.
+ *
+ * <p>A batch of column cardinalities is passed on as a batch; each provider
+ * is only asked for the columns its predecessors did not know.
+ *
+ * <p>Asynchronous requests ask the next provider only once the previous one
+ * has answered -1, without blocking the calling thread. Providers that are
+ * not asynchronous themselves are asked on the per-context pool of
+ * {@link StatisticsExecutors}, so that their metadata and catalog queries
+ * do not run on the calling thread either. A chain without providers
+ * answers -1.
+ */
+public class ChainStatisticsProvider
+    implements BatchStatisticsProvider, AsyncStatisticsProvider
+{
+    private final List<StatisticsProvider> providers;
+
+    /**
+     * Creates the default chain: {@link JdbcStatisticsProvider},
+     * {@link OptimizerStatisticsProvider} and then
+     * {@link SqlStatisticsProvider}, so that tables are only scanned if the
+     * database has no statistics.
+     */
+    public ChainStatisticsProvider() {
+        this(defaultProviders());
+    }
+
+    public ChainStatisticsProvider(List<StatisticsProvider> providers) {
+        this.providers = List.copyOf(providers);
+    }
+
+    /**
+     * Returns new instances of the providers of the default chain.
+     */
+    static List<StatisticsProvider> defaultProviders() {
+        return List.of(
+            new JdbcStatisticsProvider(),
+            new OptimizerStatisticsProvider(),
+            new SqlStatisticsProvider());
+    }
+
+    /**
+     * Returns the providers of this chain, in the order they are asked.
+     */
+    public List<StatisticsProvider> getProviders() {
+        return providers;
+    }
+
+    @Override
+    public long getTableCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        for (StatisticsProvider provider : providers) {
+            long cardinality = provider.getTableCardinality(
+                context, catalog, schema, table, execution);
+            if (cardinality >= 0) {
+                return cardinality;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getQueryCardinality(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        for (StatisticsProvider provider : providers) {
+            long cardinality =
+                provider.getQueryCardinality(context, sql, execution);
+            if (cardinality >= 0) {
+                return cardinality;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getColumnCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        for (StatisticsProvider provider : providers) {
+            long cardinality = provider.getColumnCardinality(
+                context, catalog, schema, table, column, execution);
+            if (cardinality >= 0) {
+                return cardinality;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        final long[] cardinalities = new long[columns.size()];
+        Arrays.fill(cardinalities, -1);
+        List<String> unknownColumns = columns;
+        List<Integer> unknownPositions = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            unknownPositions.add(i);
+        }
+        for (StatisticsProvider provider : providers) {
+            if (unknownColumns.isEmpty()) {
+                break;
+            }
+            final long[] answers =
+                BatchStatisticsProvider.getColumnCardinalities(
+                    provider, context, catalog, schema, table,
+                    unknownColumns, execution);
+            final List<String> stillUnknownColumns = new ArrayList<>();
+            final List<Integer> stillUnknownPositions = new ArrayList<>();
+            for (int i = 0; i < answers.length; i++) {
+                if (answers[i] >= 0) {
+                    cardinalities[unknownPositions.get(i)] = answers[i];
+                } else {
+                    stillUnknownColumns.add(unknownColumns.get(i));
+                    stillUnknownPositions.add(unknownPositions.get(i));
+                }
+            }
+            unknownColumns = stillUnknownColumns;
+            unknownPositions = stillUnknownPositions;
+        }
+        return cardinalities;
+    }
+
+    @Override
+    public CompletableFuture<Long> getTableCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return firstKnown(
+            context,
+            provider -> provider.getTableCardinalityAsync(
+                context, catalog, schema, table, execution),
+            provider -> provider.getTableCardinality(
+                context, catalog, schema, table, execution));
+    }
+
+    @Override
+    public CompletableFuture<Long> getQueryCardinalityAsync(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return firstKnown(
+            context,
+            provider -> provider.getQueryCardinalityAsync(
+                context, sql, execution),
+            provider -> provider.getQueryCardinality(
+                context, sql, execution));
+    }
+
+    @Override
+    public CompletableFuture<Long> getColumnCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return firstKnown(
+            context,
+            provider -> provider.getColumnCardinalityAsync(
+                context, catalog, schema, table, column, execution),
+            provider -> provider.getColumnCardinality(
+                context, catalog, schema, table, column, execution));
+    }
+
+    private CompletableFuture<Long> firstKnown(
+        Context context,
+        Function<AsyncStatisticsProvider, CompletableFuture<Long>> asyncRequest,
+        ToLongFunction<StatisticsProvider> request)
+    {
+        CompletableFuture<Long> future = CompletableFuture.completedFuture(-1L);
+        for (StatisticsProvider provider : providers) {
+            future = future.thenCompose(
+                cardinality -> cardinality >= 0
+                    ? CompletableFuture.completedFuture(cardinality)
+                    : StatisticsExecutors.ask(
+                        provider, context, asyncRequest, request));
+        }
+        return future;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedSet;
+
+import org.eclipse.daanse.olap.key.CellKey;
+import org.eclipse.daanse.olap.spi.SegmentBody;
+
+/**
+ * {@link SegmentBody} held in the compact encoding of
+ * {@link SegmentBodyCodec}.
+ *
+ * <p>Only the encoded bytes are retained strongly. The first access decodes
+ * them into the engine's own body, which is kept through a soft reference so
+ * that the garbage collector can drop it again under memory pressure; it is
+ * then decoded anew from the bytes on the next access.
+ *
+ * <p>{@link #get(int...)} looks cells up by their ordinals through a
+ * {@link SegmentCellIndex}, which is built on first use and held like the
+ * decoded body.
+ *
+ * <p>A segment cache stores these instead of the engine's bodies to keep
+ * cached segments small, both in memory and when serialized: the serialized
+ * form is the encoded bytes.
+ */
+public final class ColumnarSegmentBody implements SegmentBody {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private transient ByteBuffer encoded;
+    private transient SoftReference<SegmentBody> decoded;
+    private transient SoftReference<SegmentCellIndex> index;
+
+    /**
+     * Creates a body over encoded bytes. The buffer is not copied; it must
+     * not be modified afterwards.
+     */
+    public ColumnarSegmentBody(ByteBuffer encoded) {
+        this.encoded = encoded.slice();
+        this.decoded = new SoftReference<>(null);
+        this.index = new SoftReference<>(null);
+    }
+
+    /**
+     * Encodes a segment body, or returns it if it is already encoded.
+     */
+    public static ColumnarSegmentBody of(SegmentBody body) {
+        if (body instanceof ColumnarSegmentBody columnar) {
+            return columnar;
+        }
+        final ColumnarSegmentBody columnar =
+            new ColumnarSegmentBody(SegmentBodyCodec.encode(body));
+        columnar.decoded = new SoftReference<>(body);
+        return columnar;
+    }
+
+    /**
+     * Returns the encoded bytes as a read-only buffer.
+     */
+    public ByteBuffer getEncoded() {
+        return encoded.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the number of bytes of the encoding.
+     */
+    public int getEncodedSize() {
+        return encoded.remaining();
+    }
+
+    /**
+     * Returns the index that looks up cells by their ordinals.
+     */
+    public SegmentCellIndex getCellIndex() {
+        SegmentCellIndex cellIndex = index.get();
+        if (cellIndex == null) {
+            cellIndex = SegmentCellIndex.of(body());
+            index = new SoftReference<>(cellIndex);
+        }
+        return cellIndex;
+    }
+
+    /**
+     * Returns the value of the cell with the given ordinals, or null if it
+     * has none.
+     */
+    public Object get(int... ordinals) {
+        return getCellIndex().get(ordinals);
+    }
+
+    @Override
+    public Map<CellKey, Object> getValueMap() {
+        return body().getValueMap();
+    }
+
+    @Override
+    public Object getValueArray() {
+        return body().getValueArray();
+    }
+
+    @Override
+    public BitSet getNullValueIndicators() {
+        return body().getNullValueIndicators();
+    }
+
+    @Override
+    public SortedSet<Comparable>[] getAxisValueSets() {
+        return body().getAxisValueSets();
+    }
+
+    @Override
+    public boolean[] getNullAxisFlags() {
+        return body().getNullAxisFlags();
+    }
+
+    private SegmentBody body() {
+        SegmentBody body = decoded.get();
+        if (body == null) {
+            body = SegmentBodyCodec.decode(encoded);
+            decoded = new SoftReference<>(body);
+        }
+        return body;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final byte[] bytes = new byte[encoded.remaining()];
+        encoded.duplicate().get(bytes);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        encoded = ByteBuffer.wrap(bytes);
+        decoded = new SoftReference<>(null);
+        index = new SoftReference<>(null);
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.spi.SegmentCache;
+import org.eclipse.daanse.olap.spi.SegmentCache.SegmentCacheListener.SegmentCacheEvent;
+import org.eclipse.daanse.olap.spi.SegmentCache.SegmentCacheListener.SegmentCacheEvent.EventType;
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.eclipse.daanse.olap.util.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link SegmentCache} that stores segments in files, so
+ * that they survive a restart.
+ *
+ * <p>Each segment is one file in the directory given by the system property
+ * {@link #DIRECTORY}, named after the header's unique id, a stable hash of
+ * the header. The file starts with a magic number and a format version,
+ * followed by the serialized {@link SegmentHeader} and the body in the
+ * encoding of {@link SegmentBodyCodec} with its CRC-32C checksum. Files are
+ * written to a temporary file that atomically replaces the previous one and
+ * are read through a memory mapping.
+ *
+ * <p>When the cache is created it reads the headers of all files in the
+ * directory; those are the index of the cache and are what
+ * {@link #getSegmentHeaders()} reports to the engine, which then serves the
+ * segments without running SQL. Unreadable files are deleted, as are files
+ * whose body does not match its checksum when it is read. The header holds
+ * the checksum of the catalog it was loaded for, so segments of an older
+ * version of a catalog never match a query. They are deleted while loading
+ * if they are older than {@link #MAXIMUM_AGE_SECONDS} or, for a cache
+ * created with a filter such as {@link #ofCatalogs(Set)}, if the filter
+ * rejects their header; {@link #retainCatalogs(Set)} deletes them later.
+ *
+ * <p>{@link #remove(SegmentHeader)}, which the engine calls for the segments
+ * of a flushed region, deletes the file. {@link #tearDown()} keeps the
+ * files.
+ */
+public class FileSegmentCache implements SegmentCache {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(FileSegmentCache.class);
+
+    /**
+     * System property for the directory of a cache created with the no-arg
+     * constructor.
+     */
+    public static final String DIRECTORY =
+        "mondrian.segmentCache.file.directory";
+    public static final String DIRECTORY_DEFAULT_VALUE =
+        Paths.get(System.getProperty("java.io.tmpdir"), "daanse-segments")
+            .toString();
+
+    /**
+     * System property for the age in seconds after which a segment file is
+     * deleted when a cache is created. Zero or less keeps files of any age.
+     */
+    public static final String MAXIMUM_AGE_SECONDS =
+        "mondrian.segmentCache.file.maximumAgeSeconds";
+    public static final long MAXIMUM_AGE_SECONDS_DEFAULT_VALUE =
+        TimeUnit.DAYS.toSeconds(7);
+
+    static final int MAGIC = 0x4D534653; // "MSFS"
+    static final int FORMAT_VERSION = 1;
+
+    private static final String SUFFIX = ".segment";
+
+    private final Path directory;
+    private final Predicate<SegmentHeader> filter;
+    private final Duration maximumAge;
+
+    private final Map<SegmentHeader, Path> index = new ConcurrentHashMap<>();
+
+    private final List<SegmentCacheListener> listeners =
+        new CopyOnWriteArrayList<>();
+
+    public FileSegmentCache() {
+        this(Paths.get(System.getProperty(DIRECTORY, DIRECTORY_DEFAULT_VALUE)));
+    }
+
+    public FileSegmentCache(Path directory) {
+        this(
+            directory,
+            header -> true,
+            Duration.ofSeconds(
+                Long.getLong(
+                    MAXIMUM_AGE_SECONDS, MAXIMUM_AGE_SECONDS_DEFAULT_VALUE)));
+    }
+
+    /**
+     * Creates a cache over a directory, deleting the files that are older
+     * than the maximum age or whose header the filter rejects.
+     *
+     * @param directory Directory of the segment files
+     * @param filter Accepts the headers of segments to keep
+     * @param maximumAge Age after which a file is deleted; zero or negative
+     *     keeps files of any age
+     */
+    public FileSegmentCache(
+        Path directory,
+        Predicate<SegmentHeader> filter,
+        Duration maximumAge)
+    {
+        this.directory = directory;
+        this.filter = filter;
+        this.maximumAge = maximumAge;
+        load();
+    }
+
+    /**
+     * Returns a filter that accepts the segments of the catalogs with the
+     * given checksums, the catalogs that are currently deployed.
+     */
+    public static Predicate<SegmentHeader> ofCatalogs(
+        Set<ByteString> schemaChecksums)
+    {
+        return header -> schemaChecksums.contains(header.schemaChecksum);
+    }
+
+    @Override
+    public SegmentBody get(SegmentHeader header) {
+        final Path path = index.get(header);
+        if (path == null) {
+            return null;
+        }
+        try (FileChannel channel =
+                 FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final ByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            skipHeader(buffer);
+            final int checksum = buffer.getInt();
+            final ByteBuffer body = buffer.slice();
+            if (checksum(body) != checksum) {
+                throw new IllegalArgumentException("Checksum mismatch");
+            }
+            return SegmentBodyCodec.decode(body);
+        } catch (IOException | BufferUnderflowException
+                 | IllegalArgumentException e)
+        {
+            LOG.warn("Deleting unreadable segment file " + path, e);
+            remove(header);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean put(SegmentHeader header, SegmentBody body) {
+        final Path path = directory.resolve(header.getUniqueID() + SUFFIX);
+        try {
+            final byte[] headerBytes = serialize(header);
+            final ByteBuffer encoded = ColumnarSegmentBody.of(body).getEncoded();
+            final ByteBuffer prefix = ByteBuffer.allocate(16 + headerBytes.length);
+            prefix.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(headerBytes.length)
+                .put(headerBytes)
+                .putInt(checksum(encoded))
+                .flip();
+            Files.createDirectories(directory);
+            final Path temp = Files.createTempFile(
+                directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel =
+                         FileChannel.open(temp, StandardOpenOption.WRITE))
+                {
+                    final ByteBuffer[] buffers = {prefix, encoded};
+                    while (encoded.hasRemaining()) {
+                        channel.write(buffers);
+                    }
+                }
+                Files.move(
+                    temp,
+                    path,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write segment file " + path, e);
+            return false;
+        }
+        index.put(header, path);
+        fireSegmentCacheEvent(header, EventType.ENTRY_CREATED);
+        return true;
+    }
+
+    @Override
+    public List<SegmentHeader> getSegmentHeaders() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    @Override
+    public boolean remove(SegmentHeader header) {
+        final Path path = index.remove(header);
+        if (path == null) {
+            return false;
+        }
+        delete(path);
+        fireSegmentCacheEvent(header, EventType.ENTRY_DELETED);
+        return true;
+    }
+
+    /**
+     * Removes the segments of all catalogs other than those with the given
+     * checksums, for instance of catalogs that changed since the segments
+     * were written.
+     */
+    public void retainCatalogs(Set<ByteString> schemaChecksums) {
+        for (SegmentHeader header : getSegmentHeaders()) {
+            if (!schemaChecksums.contains(header.schemaChecksum)) {
+                remove(header);
+            }
+        }
+    }
+
+    @Override
+    public void tearDown() {
+        listeners.clear();
+        index.clear();
+    }
+
+    @Override
+    public void addListener(SegmentCacheListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SegmentCacheListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean supportsRichIndex() {
+        return true;
+    }
+
+    private void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        final long oldest = maximumAge.isZero() || maximumAge.isNegative()
+            ? Long.MIN_VALUE
+            : System.currentTimeMillis() - maximumAge.toMillis();
+        int pruned = 0;
+        try (DirectoryStream<Path> paths =
+                 Files.newDirectoryStream(directory, "*" + SUFFIX))
+        {
+            for (Path path : paths) {
+                try (FileChannel channel =
+                         FileChannel.open(path, StandardOpenOption.READ))
+                {
+                    if (Files.getLastModifiedTime(path).toMillis() < oldest) {
+                        delete(path);
+                        ++pruned;
+                        continue;
+                    }
+                    final ByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    final SegmentHeader header = readHeader(buffer);
+                    if (!filter.test(header)) {
+                        delete(path);
+                        ++pruned;
+                        continue;
+                    }
+                    index.put(header, path);
+                } catch (IOException | BufferUnderflowException
+                         | IllegalArgumentException e)
+                {
+                    LOG.warn("Deleting unreadable segment file " + path, e);
+                    delete(path);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to list segment directory " + directory, e);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Found " + index.size() + " segments in " + directory
+                    + ", deleted " + pruned + " stale ones");
+        }
+    }
+
+    private static SegmentHeader readHeader(ByteBuffer buffer) {
+        final int length = readPrefix(buffer);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        try (ObjectInputStream in =
+                 new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return (SegmentHeader) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Unreadable segment header", e);
+        }
+    }
+
+    private static void skipHeader(ByteBuffer buffer) {
+        final int length = readPrefix(buffer);
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Checks the magic number and version, and returns the length of the
+     * serialized header that follows.
+     */
+    private static int readPrefix(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a segment file");
+        }
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated segment file");
+        }
+        return length;
+    }
+
+    private static byte[] serialize(SegmentHeader header) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(header);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete segment file " + path, e);
+        }
+    }
+
+    private void fireSegmentCacheEvent(
+        final SegmentHeader header,
+        final EventType eventType)
+    {
+        final SegmentCacheEvent event = new SegmentCacheEvent() {
+            @Override
+            public boolean isLocal() {
+                return true;
+            }
+
+            @Override
+            public SegmentHeader getSource() {
+                return header;
+            }
+
+            @Override
+            public EventType getEventType() {
+                return eventType;
+            }
+        };
+        for (SegmentCacheListener listener : listeners) {
+            listener.handle(event);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.eclipse.daanse.jdbc.db.dialect.api.Dialect;
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.api.execution.ExecutionMetadata;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.rolap.common.RolapUtil;
+import org.eclipse.daanse.rolap.common.SqlStatement;
+
+/**
+ * Largest value of an ascending column of a table, such as a surrogate key
+ * or a load timestamp, at the time the table was counted.
+ *
+ * <p>For a table that is only appended to, the rows added since are those
+ * above the high-water mark, so the table can be recounted by counting only
+ * them.
+ *
+ * @param column Column name
+ * @param value Largest value; a {@link BigDecimal}, {@link Timestamp},
+ *     {@link Date} or {@link String}
+ */
+record HighWaterMark(String column, Object value) {
+
+    /**
+     * Number of rows counted and the high-water mark after counting them.
+     *
+     * @param rows Number of rows counted
+     * @param highWaterMark High-water mark, or null if no rows were counted
+     */
+    record Count(long rows, HighWaterMark highWaterMark) {
+    }
+
+    /**
+     * Counts all rows of a table and reads the largest value of the column.
+     */
+    static Count countAll(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return count(
+            context,
+            generateCountSql(
+                context.getDialect(), catalog, schema, table, column, null),
+            table,
+            column,
+            execution);
+    }
+
+    /**
+     * Counts the rows of a table above this high-water mark and reads the
+     * largest value among them.
+     */
+    Count countAfter(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return count(
+            context,
+            generateCountSql(
+                context.getDialect(), catalog, schema, table, column, this),
+            table,
+            column,
+            execution);
+    }
+
+    /**
+     * Generates the query for the row count and largest value of a column,
+     * over all rows, or only over those above a high-water mark if
+     * {@code after} is not null.
+     */
+    static String generateCountSql(
+        Dialect dialect,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        HighWaterMark after)
+    {
+        final String quotedColumn = dialect.quoteIdentifier(column);
+        final StringBuilder buf = new StringBuilder("select count(*), max(")
+            .append(quotedColumn)
+            .append(") from ");
+        dialect.quoteIdentifier(buf, catalog, schema, table);
+        if (after != null) {
+            buf.append(" where ").append(quotedColumn).append(" > ");
+            after.quoteValue(dialect, buf);
+        }
+        return buf.toString();
+    }
+
+    private static Count count(
+        Context context,
+        String sql,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        ExecutionMetadata metadata = ExecutionMetadata.of(
+            "HighWaterMark.count",
+            "Counting rows and high-water mark of table " + table,
+            null,
+            0
+        );
+        SqlStatement stmt =
+            RolapUtil.executeQuery(
+                context,
+                sql,
+                execution.asContext().createChild(metadata, Optional.empty()));
+        try {
+            ResultSet resultSet = stmt.getResultSet();
+            if (!resultSet.next()) {
+                throw new SQLException("No result from " + sql);
+            }
+            ++stmt.rowCount;
+            final long rows = resultSet.getLong(1);
+            final Object max = normalize(resultSet.getObject(2));
+            return new Count(
+                rows,
+                max == null ? null : new HighWaterMark(column, max));
+        } catch (SQLException e) {
+            throw stmt.handle(e);
+        } finally {
+            stmt.close();
+        }
+    }
+
+    private static Object normalize(Object value) {
+        if (value == null
+            || value instanceof BigDecimal
+            || value instanceof Timestamp
+            || value instanceof Date
+            || value instanceof String)
+        {
+            return value;
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return Timestamp.valueOf(localDateTime);
+        }
+        if (value instanceof LocalDate localDate) {
+            return Date.valueOf(localDate);
+        }
+        if (value instanceof java.util.Date date) {
+            return new Timestamp(date.getTime());
+        }
+        return value.toString();
+    }
+
+    private void quoteValue(Dialect dialect, StringBuilder buf) {
+        if (value instanceof BigDecimal decimal) {
+            buf.append(decimal.toPlainString());
+        } else if (value instanceof Timestamp) {
+            dialect.quoteTimestampLiteral(buf, value.toString());
+        } else if (value instanceof Date) {
+            dialect.quoteDateLiteral(buf, value.toString());
+        } else {
+            dialect.quoteStringLiteral(buf, (String) value);
+        }
+    }
+
+    /**
+     * Encodes this high-water mark as a string, for
+     * {@link StatisticsSnapshot}.
+     */
+    String encode() {
+        final char kind;
+        if (value instanceof BigDecimal) {
+            kind = 'N';
+        } else if (value instanceof Timestamp) {
+            kind = 'T';
+        } else if (value instanceof Date) {
+            kind = 'D';
+        } else {
+            kind = 'S';
+        }
+        return kind + Integer.toString(column.length()) + ":" + column + value;
+    }
+
+    /**
+     * Decodes a string created by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the string is malformed
+     */
+    static HighWaterMark decode(String s) {
+        final int colon = s.indexOf(':');
+        if (colon < 2) {
+            throw new IllegalArgumentException("Bad high-water mark " + s);
+        }
+        final int columnLength = Integer.parseInt(s.substring(1, colon));
+        if (columnLength < 0 || colon + 1 + columnLength > s.length()) {
+            throw new IllegalArgumentException("Bad high-water mark " + s);
+        }
+        final String column =
+            s.substring(colon + 1, colon + 1 + columnLength);
+        final String value = s.substring(colon + 1 + columnLength);
+        switch (s.charAt(0)) {
+        case 'N':
+            return new HighWaterMark(column, new BigDecimal(value));
+        case 'T':
+            return new HighWaterMark(column, Timestamp.valueOf(value));
+        case 'D':
+            return new HighWaterMark(column, Date.valueOf(value));
+        case 'S':
+            return new HighWaterMark(column, value);
+        default:
+            throw new IllegalArgumentException("Bad high-water mark " + s);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch that estimates the number of distinct values added to
+ * it, using a fixed amount of memory.
+ *
+ * <p>With {@code 2^precision} registers the relative standard error of the
+ * estimate is about {@code 1.04 / sqrt(2^precision)}. Small cardinalities
+ * are corrected by linear counting. Two sketches of the same precision can
+ * be merged, so a sketch per fine-grained cell can be rolled up into the
+ * sketch of a coarser cell. Sketches are serializable, and can be held as
+ * values of a segment body and stored in an external segment cache.
+ */
+public final class HyperLogLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                "precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ", was " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Creates a sketch whose relative standard error is at most the given
+     * bound, within the supported range of precisions.
+     */
+    public static HyperLogLog forRelativeError(double relativeError) {
+        if (!(relativeError > 0)) {
+            throw new IllegalArgumentException(
+                "relativeError must be positive, was " + relativeError);
+        }
+        final double registerCount = Math.pow(1.04 / relativeError, 2);
+        final int precision =
+            (int) Math.ceil(Math.log(registerCount) / Math.log(2));
+        return new HyperLogLog(
+            Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision)));
+    }
+
+    /**
+     * Creates a sketch from its registers, as returned by
+     * {@link #getRegisters()}.
+     */
+    public static HyperLogLog of(byte[] registers) {
+        final int precision = Integer.numberOfTrailingZeros(registers.length);
+        if (registers.length != 1 << precision) {
+            throw new IllegalArgumentException(
+                "register count must be a power of two, was "
+                    + registers.length);
+        }
+        final HyperLogLog sketch = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, sketch.registers, 0, registers.length);
+        return sketch;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns a copy of the registers.
+     */
+    public byte[] getRegisters() {
+        return registers.clone();
+    }
+
+    /**
+     * Returns a copy of this sketch.
+     */
+    public HyperLogLog copy() {
+        return of(registers);
+    }
+
+    /**
+     * Adds a value. Null values are ignored, as {@code count(distinct)}
+     * does.
+     */
+    public void add(Object value) {
+        if (value != null) {
+            addHash(hash(value));
+        }
+    }
+
+    /**
+     * Adds a value by its 64-bit hash.
+     */
+    public void addHash(long hash) {
+        final int index = (int) (hash >>> (64 - precision));
+        final long rest = (hash << precision) | (1L << (precision - 1));
+        final byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges another sketch of the same precision into this one.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                "cannot merge sketches of precision " + other.precision
+                    + " and " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct values added.
+     */
+    public long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                ++zeros;
+            }
+        }
+        final double alpha = 0.7213 / (1 + 1.079 / m);
+        final double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities.
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof HyperLogLog other
+            && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(precision=" + precision + ", estimate="
+            + estimate() + ")";
+    }
+
+    static long hash(Object value) {
+        if (value instanceof Long
+            || value instanceof Integer
+            || value instanceof Short
+            || value instanceof Byte)
+        {
+            return mix(((Number) value).longValue());
+        }
+        if (value instanceof Double d) {
+            return mix(Double.doubleToLongBits(d));
+        }
+        if (value instanceof Float f) {
+            return mix(Double.doubleToLongBits(f));
+        }
+        if (value instanceof BigDecimal decimal) {
+            return hash(decimal.stripTrailingZeros().toPlainString());
+        }
+        final CharSequence chars = value instanceof CharSequence cs
+            ? cs
+            : value.toString();
+        // 64-bit FNV-1a over the UTF-16 code units
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            h ^= chars.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, which spreads every input bit over
+     * the whole 64-bit result.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+import mondrian.spi.AsyncStatisticsProvider;
+import mondrian.spi.BatchStatisticsProvider;
+
+/**
+ * {@link ChainStatisticsProvider} that measures each of its providers.
+ *
+ * <p>Every probe is timed and recorded in the {@link StatisticsMetrics} of
+ * the probe's context, under the simple class name of the provider. Probes
+ * answered with -1 are counted as fallbacks to the next provider. For
+ * {@link SqlStatisticsProvider}, which scans the table, the rows scanned are
+ * estimated from the table's last known row count. Asynchronous probes are
+ * timed until their future completes.
+ *
+ * <p>After the catalog is loaded, {@code StatisticsMetrics.of(context)
+ * .report()} summarizes where the time went.
+ */
+public class InstrumentedStatisticsProvider extends ChainStatisticsProvider {
+
+    /**
+     * Creates an instrumented copy of the default chain.
+     */
+    public InstrumentedStatisticsProvider() {
+        this(defaultProviders());
+    }
+
+    public InstrumentedStatisticsProvider(List<StatisticsProvider> providers) {
+        super(measure(providers));
+    }
+
+    private static List<StatisticsProvider> measure(
+        List<StatisticsProvider> providers)
+    {
+        final List<StatisticsProvider> measured = new ArrayList<>();
+        for (StatisticsProvider provider : providers) {
+            measured.add(new MeasuredProvider(provider));
+        }
+        return measured;
+    }
+
+    static String qualifiedName(String catalog, String schema, String table) {
+        final StringJoiner joiner = new StringJoiner(".");
+        if (catalog != null) {
+            joiner.add(catalog);
+        }
+        if (schema != null) {
+            joiner.add(schema);
+        }
+        return joiner.add(table).toString();
+    }
+
+    /**
+     * Decorator that times one provider.
+     */
+    private static final class MeasuredProvider
+        implements BatchStatisticsProvider, AsyncStatisticsProvider
+    {
+        private final StatisticsProvider delegate;
+        private final String name;
+        private final boolean scanning;
+
+        MeasuredProvider(StatisticsProvider delegate) {
+            this.delegate = delegate;
+            final String simpleName = delegate.getClass().getSimpleName();
+            this.name = simpleName.isEmpty()
+                ? delegate.getClass().getName()
+                : simpleName;
+            this.scanning = delegate instanceof SqlStatisticsProvider;
+        }
+
+        @Override
+        public long getTableCardinality(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            ExecutionImpl execution)
+        {
+            final String qualifiedTable =
+                qualifiedName(catalog, schema, table);
+            final long start = System.nanoTime();
+            try {
+                final long cardinality = delegate.getTableCardinality(
+                    context, catalog, schema, table, execution);
+                StatisticsMetrics.of(context).record(
+                    name, scanning, qualifiedTable, true, cardinality,
+                    System.nanoTime() - start);
+                return cardinality;
+            } catch (RuntimeException e) {
+                StatisticsMetrics.of(context).recordFailure(
+                    name, qualifiedTable, System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        @Override
+        public long getQueryCardinality(
+            Context context,
+            String sql,
+            ExecutionImpl execution)
+        {
+            final long start = System.nanoTime();
+            try {
+                final long cardinality =
+                    delegate.getQueryCardinality(context, sql, execution);
+                StatisticsMetrics.of(context).record(
+                    name, scanning, null, false, cardinality,
+                    System.nanoTime() - start);
+                return cardinality;
+            } catch (RuntimeException e) {
+                StatisticsMetrics.of(context).recordFailure(
+                    name, null, System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        @Override
+        public long getColumnCardinality(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            String column,
+            ExecutionImpl execution)
+        {
+            final String qualifiedTable =
+                qualifiedName(catalog, schema, table);
+            final long start = System.nanoTime();
+            try {
+                final long cardinality = delegate.getColumnCardinality(
+                    context, catalog, schema, table, column, execution);
+                StatisticsMetrics.of(context).record(
+                    name, scanning, qualifiedTable, false, cardinality,
+                    System.nanoTime() - start);
+                return cardinality;
+            } catch (RuntimeException e) {
+                StatisticsMetrics.of(context).recordFailure(
+                    name, qualifiedTable, System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        @Override
+        public long[] getColumnCardinalities(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            List<String> columns,
+            ExecutionImpl execution)
+        {
+            final String qualifiedTable =
+                qualifiedName(catalog, schema, table);
+            final long start = System.nanoTime();
+            try {
+                final long[] cardinalities =
+                    BatchStatisticsProvider.getColumnCardinalities(
+                        delegate, context, catalog, schema, table, columns,
+                        execution);
+                StatisticsMetrics.of(context).recordBatch(
+                    name, scanning, qualifiedTable, cardinalities,
+                    System.nanoTime() - start);
+                return cardinalities;
+            } catch (RuntimeException e) {
+                StatisticsMetrics.of(context).recordFailure(
+                    name, qualifiedTable, System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        @Override
+        public CompletableFuture<Long> getTableCardinalityAsync(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            ExecutionImpl execution)
+        {
+            final long start = System.nanoTime();
+            return measure(
+                context,
+                qualifiedName(catalog, schema, table),
+                true,
+                start,
+                StatisticsExecutors.ask(
+                    delegate,
+                    context,
+                    provider -> provider.getTableCardinalityAsync(
+                        context, catalog, schema, table, execution),
+                    provider -> provider.getTableCardinality(
+                        context, catalog, schema, table, execution)));
+        }
+
+        @Override
+        public CompletableFuture<Long> getQueryCardinalityAsync(
+            Context context,
+            String sql,
+            ExecutionImpl execution)
+        {
+            final long start = System.nanoTime();
+            return measure(
+                context,
+                null,
+                false,
+                start,
+                StatisticsExecutors.ask(
+                    delegate,
+                    context,
+                    provider -> provider.getQueryCardinalityAsync(
+                        context, sql, execution),
+                    provider -> provider.getQueryCardinality(
+                        context, sql, execution)));
+        }
+
+        @Override
+        public CompletableFuture<Long> getColumnCardinalityAsync(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            String column,
+            ExecutionImpl execution)
+        {
+            final long start = System.nanoTime();
+            return measure(
+                context,
+                qualifiedName(catalog, schema, table),
+                false,
+                start,
+                StatisticsExecutors.ask(
+                    delegate,
+                    context,
+                    provider -> provider.getColumnCardinalityAsync(
+                        context, catalog, schema, table, column, execution),
+                    provider -> provider.getColumnCardinality(
+                        context, catalog, schema, table, column,
+                        execution)));
+        }
+
+        private CompletableFuture<Long> measure(
+            Context context,
+            String qualifiedTable,
+            boolean isTable,
+            long start,
+            CompletableFuture<Long> future)
+        {
+            return future.whenComplete((cardinality, e) -> {
+                final long nanos = System.nanoTime() - start;
+                if (e != null) {
+                    StatisticsMetrics.of(context).recordFailure(
+                        name, qualifiedTable, nanos);
+                } else {
+                    StatisticsMetrics.of(context).record(
+                        name, scanning, qualifiedTable, isTable, cardinality,
+                        nanos);
+                }
+            });
+        }
+    }
+}
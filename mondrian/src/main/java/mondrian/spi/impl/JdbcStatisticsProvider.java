@@ -13,6 +13,10 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.daanse.olap.api.Context;
 import org.eclipse.daanse.olap.common.Util;
@@ -20,15 +24,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.eclipse.daanse.olap.execution.ExecutionImpl;
-import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import mondrian.spi.BatchStatisticsProvider;
 
 /**
  * Implementation of {@link mondrian.spi.StatisticsProvider} that uses JDBC
  * metadata calls to count rows and distinct values.
+ *
+ * <p>{@link DatabaseMetaData#getIndexInfo} is called once per table; its
+ * rows are kept in a {@link TableIndexInfo} that answers the table and all
+ * column cardinalities of that table for
+ * {@link CachingStatisticsProvider#TIME_TO_LIVE_SECONDS} seconds.
  */
-public class JdbcStatisticsProvider implements StatisticsProvider {
+public class JdbcStatisticsProvider implements BatchStatisticsProvider {
     private static final Logger LOG =
         LoggerFactory.getLogger(JdbcStatisticsProvider.class);
+
+    private final Cache<Context, Cache<StatisticsKey, TableIndexInfo>> tables =
+        Caffeine.newBuilder().weakKeys().build();
+
     @Override
 	public long getTableCardinality(
         Context context,
@@ -37,45 +54,8 @@ public class JdbcStatisticsProvider implements StatisticsProvider {
         String table,
         ExecutionImpl execution)
     {
-        Connection connection = null;
-        ResultSet resultSet = null;
-        try {
-            connection = context.getDataSource().getConnection();
-            resultSet =
-                connection
-                    .getMetaData()
-                    .getIndexInfo(catalog, schema, table, false, true);
-            int maxNonUnique = -1;
-            while (resultSet.next()) {
-                final int type = resultSet.getInt(7); // "TYPE" column
-                final int cardinality = resultSet.getInt(11);
-                final boolean unique =
-                    !resultSet.getBoolean(4); // "NON_UNIQUE" column
-                switch (type) {
-                case DatabaseMetaData.tableIndexStatistic:
-                    return cardinality; // "CARDINALITY" column
-                }
-                if (!unique) {
-                    maxNonUnique = Math.max(maxNonUnique, cardinality);
-                }
-            }
-            // The cardinality of each non-unique index will be the number of
-            // non-NULL values in that index. Unless we're unlucky, one of those
-            // columns will cover most of the table.
-            return maxNonUnique;
-        } catch (SQLException e) {
-            // We will have to try a count() operation or some other
-            // statistics provider in the chain.
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(
-                    "JdbcStatisticsProvider failed to get the cardinality of the table "
-                        + table,
-                    e);
-            }
-            return -1;
-        } finally {
-            Util.close(resultSet, null, connection);
-        }
+        return getTableIndexInfo(context, catalog, schema, table)
+            .tableCardinality();
     }
 
     @Override
@@ -96,6 +76,71 @@ public class JdbcStatisticsProvider implements StatisticsProvider {
         String table,
         String column,
         ExecutionImpl execution)
+    {
+        return getTableIndexInfo(context, catalog, schema, table)
+            .columnCardinality(column);
+    }
+
+    @Override
+    public long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        final TableIndexInfo info =
+            getTableIndexInfo(context, catalog, schema, table);
+        final long[] cardinalities = new long[columns.size()];
+        for (int i = 0; i < cardinalities.length; i++) {
+            cardinalities[i] = info.columnCardinality(columns.get(i));
+        }
+        return cardinalities;
+    }
+
+    /**
+     * Discards the index information read for the given context.
+     */
+    public void invalidate(Context context) {
+        tables.invalidate(context);
+    }
+
+    private TableIndexInfo getTableIndexInfo(
+        Context context,
+        String catalog,
+        String schema,
+        String table)
+    {
+        return tables
+            .get(context, JdbcStatisticsProvider::createCache)
+            .get(
+                StatisticsKey.ofTable(catalog, schema, table),
+                key -> readTableIndexInfo(context, catalog, schema, table));
+    }
+
+    private static Cache<StatisticsKey, TableIndexInfo> createCache(
+        Context<?> context)
+    {
+        final Long timeToLive = context.getConfigValue(
+            CachingStatisticsProvider.TIME_TO_LIVE_SECONDS,
+            CachingStatisticsProvider.TIME_TO_LIVE_SECONDS_DEFAULT_VALUE,
+            Long.class);
+        return Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(timeToLive))
+            .build();
+    }
+
+    /**
+     * Reads the index information of a table with a single metadata call.
+     * If the call fails, the returned information knows no cardinalities, so
+     * the failure is not repeated for every column of the table.
+     */
+    static TableIndexInfo readTableIndexInfo(
+        Context context,
+        String catalog,
+        String schema,
+        String table)
     {
         Connection connection = null;
         ResultSet resultSet = null;
@@ -105,19 +150,7 @@ public class JdbcStatisticsProvider implements StatisticsProvider {
                 connection
                     .getMetaData()
                     .getIndexInfo(catalog, schema, table, false, true);
-            while (resultSet.next()) {
-                int type = resultSet.getInt(7); // "TYPE" column
-                switch (type) {
-                case DatabaseMetaData.tableIndexStatistic:
-                    continue;
-                default:
-                    String columnName = resultSet.getString(9); //COLUMN_NAME
-                    if (columnName != null && columnName.equals(column)) {
-                        return resultSet.getInt(11); // "CARDINALITY" column
-                    }
-                }
-            }
-            return -1; // information not available, apparently
+            return TableIndexInfo.of(resultSet);
         } catch (SQLException e) {
             // We will have to try a count() operation or some other
             // statistics provider in the chain.
@@ -127,9 +160,64 @@ public class JdbcStatisticsProvider implements StatisticsProvider {
                         + table,
                     e);
             }
-            return -1;
+            return TableIndexInfo.UNKNOWN;
         } finally {
             Util.close(resultSet, null, connection);
         }
     }
+
+    /**
+     * Cardinalities of one table and its indexed columns, as reported by
+     * {@link DatabaseMetaData#getIndexInfo}.
+     *
+     * @param tableCardinality Cardinality of the table statistic row, or
+     *     failing that of the largest non-unique index; -1 if unknown
+     * @param columnCardinalities Cardinality of the first index row of each
+     *     column
+     */
+    record TableIndexInfo(
+        long tableCardinality,
+        Map<String, Long> columnCardinalities)
+    {
+        static final TableIndexInfo UNKNOWN = new TableIndexInfo(-1, Map.of());
+
+        static TableIndexInfo of(ResultSet resultSet) throws SQLException {
+            long statisticCardinality = -1;
+            int maxNonUnique = -1;
+            final Map<String, Long> columnCardinalities = new HashMap<>();
+            while (resultSet.next()) {
+                final int type = resultSet.getInt(7); // "TYPE" column
+                final int cardinality = resultSet.getInt(11); // "CARDINALITY"
+                final boolean unique =
+                    !resultSet.getBoolean(4); // "NON_UNIQUE" column
+                switch (type) {
+                case DatabaseMetaData.tableIndexStatistic:
+                    if (statisticCardinality < 0) {
+                        statisticCardinality = cardinality;
+                    }
+                    continue;
+                default:
+                    String columnName = resultSet.getString(9); //COLUMN_NAME
+                    if (columnName != null) {
+                        columnCardinalities.putIfAbsent(
+                            columnName, (long) cardinality);
+                    }
+                }
+                if (!unique) {
+                    maxNonUnique = Math.max(maxNonUnique, cardinality);
+                }
+            }
+            // The cardinality of each non-unique index will be the number of
+            // non-NULL values in that index. Unless we're unlucky, one of those
+            // columns will cover most of the table.
+            return new TableIndexInfo(
+                statisticCardinality >= 0 ? statisticCardinality : maxNonUnique,
+                Map.copyOf(columnCardinalities));
+        }
+
+        long columnCardinality(String column) {
+            final Long cardinality = columnCardinalities.get(column);
+            return cardinality == null ? -1 : cardinality;
+        }
+    }
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.spi.SegmentCache;
+import org.eclipse.daanse.olap.spi.SegmentCache.SegmentCacheListener.SegmentCacheEvent;
+import org.eclipse.daanse.olap.spi.SegmentCache.SegmentCacheListener.SegmentCacheEvent.EventType;
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Implementation of {@link SegmentCache} that keeps segment bodies outside
+ * the Java heap.
+ *
+ * <p>Bodies are stored in the encoding of {@link SegmentBodyCodec}, each in
+ * a direct {@link ByteBuffer}; only the headers and the cache's bookkeeping
+ * stay on the heap. The cache holds at most {@link #MAXIMUM_BYTES} bytes of
+ * encoded bodies, set through the system property of that name, and evicts
+ * with Caffeine's W-TinyLFU policy: segments that are used often are kept in
+ * favor of segments that were loaded once.
+ *
+ * <p>Besides that frequency-based admission, two rules keep a single query
+ * from displacing the segments that serve everyone else:
+ * <ul>
+ * <li>A segment larger than {@link #MAXIMUM_SEGMENT_BYTES} is not cached at
+ *     all; the engine keeps it only for the query that loaded it.</li>
+ * <li>{@link #CUBE_QUOTAS} limits the bytes the segments of a cube may take.
+ *     A cube that reaches its quota makes room by evicting its own least
+ *     recently used segments, never those of other cubes. The segments of
+ *     such a cube are kept in access order, so that finding them does not
+ *     scan the whole cache, and the segments of one cube are added one at
+ *     a time, so that concurrent loads cannot overrun its quota
+ *     together.</li>
+ * </ul>
+ *
+ * <p>{@link #getLayoutSizes()} reports how much memory the segments take
+ * per layout the encoding chose for them.
+ *
+ * <p>Listeners are told about every segment that is added
+ * ({@code ENTRY_CREATED}) and every segment that is removed or evicted
+ * ({@code ENTRY_DELETED}).
+ */
+public class OffHeapSegmentCache implements SegmentCache {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(OffHeapSegmentCache.class);
+
+    /**
+     * System property for the maximum number of bytes of encoded segment
+     * bodies held by a cache created with the no-arg constructor.
+     */
+    public static final String MAXIMUM_BYTES =
+        "mondrian.segmentCache.offHeap.maximumBytes";
+    public static final long MAXIMUM_BYTES_DEFAULT_VALUE = 256L << 20;
+
+    /**
+     * System property for the maximum number of bytes of a single encoded
+     * segment body admitted to a cache created with the no-arg constructor.
+     * Defaults to a quarter of {@link #MAXIMUM_BYTES}.
+     */
+    public static final String MAXIMUM_SEGMENT_BYTES =
+        "mondrian.segmentCache.offHeap.maximumSegmentBytes";
+
+    /**
+     * System property for the per-cube quotas of a cache created with the
+     * no-arg constructor, as a comma-separated list of
+     * {@code cube=bytes} or {@code schema.cube=bytes} entries. The entry
+     * {@code *=bytes} applies to all other cubes. Cubes without a quota
+     * share the whole cache.
+     */
+    public static final String CUBE_QUOTAS =
+        "mondrian.segmentCache.offHeap.cubeQuotas";
+    public static final String CUBE_QUOTAS_DEFAULT_VALUE = "";
+
+    private final long maximumBytes;
+
+    private final long maximumSegmentBytes;
+
+    private final Map<String, Long> cubeQuotas;
+
+    /**
+     * Bytes held per cube, keyed by schema and cube name.
+     */
+    private final Map<String, Long> cubeBytes = new ConcurrentHashMap<>();
+
+    /**
+     * Segments of each cube with a quota and their sizes, least recently
+     * used first, keyed by schema and cube name. Each map is also the lock
+     * that serializes adding segments to its cube.
+     */
+    private final Map<String, Map<SegmentHeader, Integer>> cubeSegments =
+        new ConcurrentHashMap<>();
+
+    private final Cache<SegmentHeader, ByteBuffer> cache;
+
+    private final List<SegmentCacheListener> listeners =
+        new CopyOnWriteArrayList<>();
+
+    /**
+     * Segments removed from the cache whose {@code ENTRY_DELETED} event is
+     * not delivered yet. The cache may evict during any operation, even
+     * the segment being added; events are delivered once the operation is
+     * complete, so that a segment's creation is always reported before its
+     * deletion.
+     */
+    private final Queue<SegmentHeader> removedHeaders =
+        new ConcurrentLinkedQueue<>();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public OffHeapSegmentCache() {
+        this(
+            Long.getLong(MAXIMUM_BYTES, MAXIMUM_BYTES_DEFAULT_VALUE),
+            Long.getLong(
+                MAXIMUM_SEGMENT_BYTES,
+                Long.getLong(MAXIMUM_BYTES, MAXIMUM_BYTES_DEFAULT_VALUE) / 4),
+            parseCubeQuotas(
+                System.getProperty(CUBE_QUOTAS, CUBE_QUOTAS_DEFAULT_VALUE)));
+    }
+
+    public OffHeapSegmentCache(long maximumBytes) {
+        this(maximumBytes, maximumBytes, Map.of());
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumBytes Maximum number of bytes of all encoded bodies
+     * @param maximumSegmentBytes Maximum number of bytes of one encoded body
+     * @param cubeQuotas Maximum number of bytes per cube, keyed by cube
+     *     name, by schema and cube name separated by a dot, or by "*" for
+     *     all other cubes
+     */
+    public OffHeapSegmentCache(
+        long maximumBytes,
+        long maximumSegmentBytes,
+        Map<String, Long> cubeQuotas)
+    {
+        this.maximumBytes = maximumBytes;
+        this.maximumSegmentBytes = Math.min(maximumSegmentBytes, maximumBytes);
+        this.cubeQuotas = Map.copyOf(cubeQuotas);
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher((SegmentHeader header, ByteBuffer body) ->
+                body.capacity())
+            // Evict on the calling thread, so that events are delivered
+            // before put and remove return.
+            .executor(Runnable::run)
+            .removalListener(this::onRemoval)
+            .build();
+    }
+
+    @Override
+    public SegmentBody get(SegmentHeader header) {
+        final ByteBuffer encoded = cache.getIfPresent(header);
+        fireDeletedEvents();
+        if (encoded == null) {
+            return null;
+        }
+        final Map<SegmentHeader, Integer> segments =
+            cubeSegments.get(cubeKey(header));
+        if (segments != null) {
+            synchronized (segments) {
+                segments.get(header);
+            }
+        }
+        return SegmentBodyCodec.decode(encoded);
+    }
+
+    @Override
+    public boolean put(SegmentHeader header, SegmentBody body) {
+        final ByteBuffer heap = ColumnarSegmentBody.of(body).getEncoded();
+        final int size = heap.remaining();
+        final String cube = cubeKey(header);
+        final long quota = quota(header);
+        if (size > maximumSegmentBytes || size > quota) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    "Not caching segment of " + size
+                        + " bytes, larger than allowed: " + header);
+            }
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Caching segment as " + SegmentBodyCodec.layoutOf(heap)
+                    + " in " + heap.remaining() + " bytes: " + header);
+        }
+        final ByteBuffer direct = ByteBuffer.allocateDirect(size);
+        direct.put(heap).flip();
+        if (quota < Long.MAX_VALUE) {
+            final Map<SegmentHeader, Integer> segments =
+                cubeSegments.computeIfAbsent(
+                    cube, c -> new LinkedHashMap<>(16, 0.75f, true));
+            synchronized (segments) {
+                // A segment that is put again replaces its old body, whose
+                // bytes need no room.
+                final ByteBuffer old =
+                    cache.policy().getIfPresentQuietly(header);
+                makeRoom(
+                    segments,
+                    header,
+                    cube,
+                    quota - size + (old == null ? 0 : old.capacity()));
+                store(header, direct, cube);
+                segments.put(header, size);
+            }
+        } else {
+            store(header, direct, cube);
+        }
+        fireSegmentCacheEvent(header, EventType.ENTRY_CREATED);
+        fireDeletedEvents();
+        return true;
+    }
+
+    @Override
+    public List<SegmentHeader> getSegmentHeaders() {
+        return new ArrayList<>(cache.asMap().keySet());
+    }
+
+    @Override
+    public boolean remove(SegmentHeader header) {
+        final boolean removed = cache.asMap().remove(header) != null;
+        fireDeletedEvents();
+        return removed;
+    }
+
+    @Override
+    public void tearDown() {
+        listeners.clear();
+        cache.invalidateAll();
+        cache.cleanUp();
+        removedHeaders.clear();
+        cubeSegments.clear();
+    }
+
+    @Override
+    public void addListener(SegmentCacheListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SegmentCacheListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean supportsRichIndex() {
+        return true;
+    }
+
+    /**
+     * Returns the number of bytes of encoded segment bodies currently held.
+     */
+    public long getByteSize() {
+        return cache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+    }
+
+    /**
+     * Returns the number of bytes of encoded segment bodies currently held
+     * per layout, as described by {@link SegmentBodyCodec#layoutOf}.
+     */
+    public Map<String, Long> getLayoutSizes() {
+        final Map<String, Long> sizes = new TreeMap<>();
+        for (ByteBuffer body : cache.asMap().values()) {
+            sizes.merge(
+                SegmentBodyCodec.layoutOf(body),
+                (long) body.capacity(),
+                Long::sum);
+        }
+        return sizes;
+    }
+
+    /**
+     * Returns the number of bytes of encoded segment bodies currently held
+     * per cube, keyed by schema and cube name separated by a dot.
+     */
+    public Map<String, Long> getCubeSizes() {
+        final Map<String, Long> sizes = new TreeMap<>();
+        cubeBytes.forEach((cube, bytes) -> {
+            if (bytes > 0) {
+                sizes.put(cube, bytes);
+            }
+        });
+        return sizes;
+    }
+
+    /**
+     * Returns the maximum number of bytes of encoded segment bodies held.
+     */
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * Returns the number of segments evicted to stay within the budget.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private void store(SegmentHeader header, ByteBuffer body, String cube) {
+        cache.put(header, body.asReadOnlyBuffer());
+        cubeBytes.merge(cube, (long) body.capacity(), Long::sum);
+    }
+
+    /**
+     * Evicts the least recently used segments of a cube until it holds at
+     * most the given number of bytes. Called with the cube's segments
+     * locked.
+     */
+    private void makeRoom(
+        Map<SegmentHeader, Integer> segments,
+        SegmentHeader header,
+        String cube,
+        long allowed)
+    {
+        long excess = cubeBytes.getOrDefault(cube, 0L) - allowed;
+        final Iterator<SegmentHeader> iterator = segments.keySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            final SegmentHeader segment = iterator.next();
+            if (segment.equals(header)) {
+                continue;
+            }
+            iterator.remove();
+            final ByteBuffer body = cache.asMap().remove(segment);
+            if (body != null) {
+                evictionCount.increment();
+                excess -= body.capacity();
+            }
+        }
+    }
+
+    /**
+     * Removes a segment that has left the cache from the access order of
+     * its cube, unless it has been added again since.
+     */
+    private void forget(SegmentHeader header) {
+        final Map<SegmentHeader, Integer> segments =
+            cubeSegments.get(cubeKey(header));
+        if (segments == null) {
+            return;
+        }
+        synchronized (segments) {
+            if (!cache.asMap().containsKey(header)) {
+                segments.remove(header);
+            }
+        }
+    }
+
+    private long quota(SegmentHeader header) {
+        Long quota = cubeQuotas.get(cubeKey(header));
+        if (quota == null) {
+            quota = cubeQuotas.get(header.cubeName);
+        }
+        if (quota == null) {
+            quota = cubeQuotas.get("*");
+        }
+        return quota == null ? Long.MAX_VALUE : quota;
+    }
+
+    private static String cubeKey(SegmentHeader header) {
+        return header.schemaName + "." + header.cubeName;
+    }
+
+    /**
+     * Parses per-cube quotas in the format of {@link #CUBE_QUOTAS}.
+     * Malformed entries are ignored.
+     */
+    static Map<String, Long> parseCubeQuotas(String quotas) {
+        final Map<String, Long> map = new HashMap<>();
+        if (quotas == null || quotas.isBlank()) {
+            return map;
+        }
+        for (String entry : quotas.split(",")) {
+            final int equals = entry.lastIndexOf('=');
+            try {
+                map.put(
+                    entry.substring(0, equals).trim(),
+                    Long.parseLong(entry.substring(equals + 1).trim()));
+            } catch (RuntimeException e) {
+                LOG.warn("Ignoring bad segment cache quota " + entry);
+            }
+        }
+        return map;
+    }
+
+    private void onRemoval(
+        SegmentHeader header,
+        ByteBuffer body,
+        RemovalCause cause)
+    {
+        cubeBytes.merge(cubeKey(header), (long) -body.capacity(), Long::sum);
+        if (cause == RemovalCause.REPLACED) {
+            return;
+        }
+        if (cause.wasEvicted()) {
+            evictionCount.increment();
+        }
+        removedHeaders.add(header);
+    }
+
+    private void fireDeletedEvents() {
+        SegmentHeader header;
+        while ((header = removedHeaders.poll()) != null) {
+            forget(header);
+            fireSegmentCacheEvent(header, EventType.ENTRY_DELETED);
+        }
+    }
+
+    private void fireSegmentCacheEvent(
+        final SegmentHeader header,
+        final EventType eventType)
+    {
+        final SegmentCacheEvent event = new SegmentCacheEvent() {
+            @Override
+            public boolean isLocal() {
+                return true;
+            }
+
+            @Override
+            public SegmentHeader getSource() {
+                return header;
+            }
+
+            @Override
+            public EventType getEventType() {
+                return eventType;
+            }
+        };
+        for (SegmentCacheListener listener : listeners) {
+            listener.handle(event);
+        }
+    }
+}
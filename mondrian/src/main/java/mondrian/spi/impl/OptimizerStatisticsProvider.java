@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.daanse.jdbc.db.dialect.api.Dialect;
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.common.Util;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link StatisticsProvider} that reads the statistics the
+ * database keeps for its query optimizer, instead of scanning the table.
+ *
+ * <p>Supported databases and the catalogs read:
+ * <ul>
+ * <li>PostgreSQL, Greenplum: {@code pg_class.reltuples} and
+ *     {@code pg_stats.n_distinct}</li>
+ * <li>MySQL, MariaDB: {@code information_schema.TABLES.TABLE_ROWS} and the
+ *     {@code CARDINALITY} of the leading column of an index in
+ *     {@code information_schema.STATISTICS}</li>
+ * <li>Oracle: {@code ALL_TABLES.NUM_ROWS} and
+ *     {@code ALL_TAB_COL_STATISTICS.NUM_DISTINCT}</li>
+ * <li>Microsoft SQL Server: row count of {@code sys.partitions}</li>
+ * <li>H2: {@code INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE}</li>
+ * </ul>
+ *
+ * <p>Statistics that are missing, or zero because the table was never
+ * analyzed, are reported as unknown (-1), so that the next provider in the
+ * chain, typically {@link SqlStatisticsProvider}, counts instead. For other
+ * databases no SQL is issued at all.
+ */
+public class OptimizerStatisticsProvider implements StatisticsProvider {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(OptimizerStatisticsProvider.class);
+
+    @Override
+    public long getTableCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return read(
+            context,
+            generateTableCardinalityQuery(
+                context.getDialect(), catalog, schema, table),
+            Arrays.asList(catalog, schema, table));
+    }
+
+    @Override
+    public long getQueryCardinality(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        // The optimizer's estimate for a query is not exposed uniformly.
+        return -1;
+    }
+
+    @Override
+    public long getColumnCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return read(
+            context,
+            generateColumnCardinalityQuery(
+                context.getDialect(), schema, table, column),
+            Arrays.asList(catalog, schema, table, column));
+    }
+
+    /**
+     * Generates the catalog query for the row count of a table, or returns
+     * null if the database is not supported.
+     */
+    static CatalogQuery generateTableCardinalityQuery(
+        Dialect dialect,
+        String catalog,
+        String schema,
+        String table)
+    {
+        switch (product(dialect)) {
+        case "POSTGRES":
+        case "POSTGRESQL":
+        case "GREENPLUM":
+            return CatalogQuery.of(
+                "select c.reltuples from pg_class c"
+                    + " join pg_namespace n on n.oid = c.relnamespace"
+                    + " where n.nspname = " + schemaParameter(schema, "current_schema()")
+                    + " and c.relname = ?",
+                schema, table);
+        case "MYSQL":
+        case "MARIADB":
+            return CatalogQuery.of(
+                "select TABLE_ROWS from information_schema.TABLES"
+                    + " where TABLE_SCHEMA = " + schemaParameter(schema, "database()")
+                    + " and TABLE_NAME = ?",
+                schema, table);
+        case "ORACLE":
+            return CatalogQuery.of(
+                "select NUM_ROWS from ALL_TABLES"
+                    + " where OWNER = " + schemaParameter(schema, "sys_context('USERENV', 'CURRENT_SCHEMA')")
+                    + " and TABLE_NAME = ?",
+                schema, table);
+        case "MSSQL":
+            final StringBuilder name = new StringBuilder();
+            dialect.quoteIdentifier(name, catalog, schema, table);
+            return CatalogQuery.of(
+                "select sum(rows) from sys.partitions"
+                    + " where object_id = object_id(?) and index_id in (0, 1)",
+                null, name.toString());
+        case "H2":
+            return CatalogQuery.of(
+                "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES"
+                    + " where TABLE_SCHEMA = " + schemaParameter(schema, "CURRENT_SCHEMA")
+                    + " and TABLE_NAME = ?",
+                schema, table);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Generates the catalog query for the number of distinct values of a
+     * column, or returns null if the database does not keep it.
+     *
+     * <p>The query returns the cardinality in its first column. PostgreSQL
+     * reports large cardinalities as a negative fraction of the row count,
+     * which the query returns in its second column.
+     */
+    static CatalogQuery generateColumnCardinalityQuery(
+        Dialect dialect,
+        String schema,
+        String table,
+        String column)
+    {
+        switch (product(dialect)) {
+        case "POSTGRES":
+        case "POSTGRESQL":
+        case "GREENPLUM":
+            return CatalogQuery.of(
+                "select s.n_distinct, c.reltuples from pg_stats s"
+                    + " join pg_namespace n on n.nspname = s.schemaname"
+                    + " join pg_class c on c.relnamespace = n.oid"
+                    + " and c.relname = s.tablename"
+                    + " where s.schemaname = " + schemaParameter(schema, "current_schema()")
+                    + " and s.tablename = ? and s.attname = ?"
+                    + " and not s.inherited",
+                schema, table, column);
+        case "MYSQL":
+        case "MARIADB":
+            return CatalogQuery.of(
+                "select max(CARDINALITY) from information_schema.STATISTICS"
+                    + " where TABLE_SCHEMA = " + schemaParameter(schema, "database()")
+                    + " and TABLE_NAME = ? and COLUMN_NAME = ?"
+                    + " and SEQ_IN_INDEX = 1",
+                schema, table, column);
+        case "ORACLE":
+            return CatalogQuery.of(
+                "select NUM_DISTINCT from ALL_TAB_COL_STATISTICS"
+                    + " where OWNER = " + schemaParameter(schema, "sys_context('USERENV', 'CURRENT_SCHEMA')")
+                    + " and TABLE_NAME = ? and COLUMN_NAME = ?",
+                schema, table, column);
+        default:
+            return null;
+        }
+    }
+
+    private static String product(Dialect dialect) {
+        return dialect.name().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the placeholder for the schema name, or the database's
+     * current schema if no schema is given.
+     */
+    private static String schemaParameter(String schema, String currentSchema) {
+        return schema == null ? currentSchema : "?";
+    }
+
+    private static long read(
+        Context context,
+        CatalogQuery query,
+        List<String> object)
+    {
+        if (query == null) {
+            return -1;
+        }
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = context.getDataSource().getConnection();
+            statement = connection.prepareStatement(query.sql());
+            for (int i = 0; i < query.parameters().size(); i++) {
+                statement.setString(i + 1, query.parameters().get(i));
+            }
+            resultSet = statement.executeQuery();
+            if (!resultSet.next()) {
+                return -1;
+            }
+            double cardinality = resultSet.getDouble(1);
+            if (resultSet.wasNull()) {
+                return -1;
+            }
+            if (cardinality < 0
+                && resultSet.getMetaData().getColumnCount() > 1)
+            {
+                // Fraction of the row count.
+                cardinality = -cardinality * resultSet.getDouble(2);
+            }
+            return cardinality > 0 ? Math.round(cardinality) : -1;
+        } catch (SQLException e) {
+            // No access to the catalog, or a different catalog layout in
+            // this version of the database. Defer to the next provider.
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    "OptimizerStatisticsProvider failed to read the statistics of "
+                        + object,
+                    e);
+            }
+            return -1;
+        } finally {
+            Util.close(resultSet, statement, connection);
+        }
+    }
+
+    /**
+     * Catalog query and the values of its parameters.
+     */
+    record CatalogQuery(String sql, List<String> parameters) {
+        /**
+         * Creates a query whose parameters are the given schema, unless it
+         * is null, followed by the remaining values.
+         */
+        static CatalogQuery of(String sql, String schema, String... values) {
+            final List<String> parameters = new ArrayList<>();
+            if (schema != null) {
+                parameters.add(schema);
+            }
+            parameters.addAll(Arrays.asList(values));
+            return new CatalogQuery(sql, parameters);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import mondrian.spi.BatchStatisticsProvider;
+
+/**
+ * Implementation of {@link StatisticsProvider} that remembers table and
+ * column cardinalities across restarts.
+ *
+ * <p>Cardinalities found by the delegate (by default the
+ * {@link ChainStatisticsProvider#ChainStatisticsProvider() default chain})
+ * are written to one {@link StatisticsSnapshot} file per context and schema
+ * in the directory given by {@link #DIRECTORY}. A snapshot is read the first
+ * time a cardinality of its schema is requested. Values older than
+ * {@link #MAX_AGE_SECONDS} are still returned, but are re-probed on a
+ * background thread, so a warm restart does not issue any SQL. A re-probe
+ * runs in an execution of its own, so that it is not cancelled or timed out
+ * together with the query that noticed the stale value.
+ *
+ * <p>Tables listed in {@link #HIGH_WATER_MARK_COLUMNS} are assumed to be
+ * append-only. Their row count is stored together with the largest value of
+ * the given column, and a refresh only counts the rows above that
+ * {@link HighWaterMark}. If that fails, the table is counted in full, and if
+ * that fails too, the delegate is asked.
+ *
+ * <p>Query cardinalities depend on the SQL text and are not persisted.
+ */
+public class PersistentStatisticsProvider implements BatchStatisticsProvider {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(PersistentStatisticsProvider.class);
+
+    /**
+     * Context configuration key for the directory that holds the snapshot
+     * files.
+     */
+    public static final String DIRECTORY = "statisticsSnapshotDirectory";
+    public static final String DIRECTORY_DEFAULT_VALUE =
+        Paths.get(System.getProperty("java.io.tmpdir"), "daanse-statistics")
+            .toString();
+
+    /**
+     * Context configuration key for the age, in seconds, after which a
+     * persisted cardinality is refreshed in the background.
+     */
+    public static final String MAX_AGE_SECONDS =
+        "statisticsSnapshotMaxAgeSeconds";
+    public static final Long MAX_AGE_SECONDS_DEFAULT_VALUE = 86400L;
+
+    /**
+     * Context configuration key for the ascending column of each append-only
+     * table, as a comma-separated list of {@code table=column} or
+     * {@code schema.table=column} entries.
+     */
+    public static final String HIGH_WATER_MARK_COLUMNS =
+        "statisticsHighWaterMarkColumns";
+    public static final String HIGH_WATER_MARK_COLUMNS_DEFAULT_VALUE = "";
+
+    /**
+     * Delay between the first change of a snapshot and writing it, so that
+     * the probes of one schema load end up in a single write.
+     */
+    private static final long SAVE_DELAY_MILLIS = 5000;
+
+    private static final ScheduledExecutorService EXECUTOR =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mondrian.statistics.snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final StatisticsProvider delegate;
+    private final Map<Path, StatisticsSnapshot> snapshots =
+        new ConcurrentHashMap<>();
+
+    public PersistentStatisticsProvider() {
+        this(new ChainStatisticsProvider());
+    }
+
+    public PersistentStatisticsProvider(List<StatisticsProvider> delegates) {
+        this(new ChainStatisticsProvider(delegates));
+    }
+
+    public PersistentStatisticsProvider(StatisticsProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long getTableCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        final String column = highWaterMarkColumn(context, schema, table);
+        if (column != null) {
+            return lookupIncremental(
+                context, catalog, schema, table, column, execution);
+        }
+        return lookup(
+            context,
+            schema,
+            StatisticsKey.ofTable(catalog, schema, table),
+            execution,
+            probeExecution -> delegate.getTableCardinality(
+                context, catalog, schema, table, probeExecution));
+    }
+
+    @Override
+    public long getQueryCardinality(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return delegate.getQueryCardinality(context, sql, execution);
+    }
+
+    @Override
+    public long getColumnCardinality(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return lookup(
+            context,
+            schema,
+            StatisticsKey.ofColumn(catalog, schema, table, column),
+            execution,
+            probeExecution -> delegate.getColumnCardinality(
+                context, catalog, schema, table, column, probeExecution));
+    }
+
+    @Override
+    public long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        final StatisticsSnapshot snapshot = snapshot(context, schema);
+        final long now = System.currentTimeMillis();
+        final long maxAgeMillis = maxAgeMillis(context);
+        final long[] cardinalities = new long[columns.size()];
+        final List<Integer> missing = new ArrayList<>();
+        final List<String> staleColumns = new ArrayList<>();
+        for (int i = 0; i < cardinalities.length; i++) {
+            final StatisticsKey key = StatisticsKey.ofColumn(
+                catalog, schema, table, columns.get(i));
+            final StatisticsSnapshot.Entry entry = snapshot.get(key);
+            if (entry == null) {
+                missing.add(i);
+                continue;
+            }
+            cardinalities[i] = entry.cardinality();
+            if (now - entry.observedMillis() > maxAgeMillis
+                && snapshot.beginRefresh(key))
+            {
+                staleColumns.add(columns.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            final List<String> missingColumns = new ArrayList<>();
+            for (int i : missing) {
+                missingColumns.add(columns.get(i));
+            }
+            final long[] probed =
+                BatchStatisticsProvider.getColumnCardinalities(
+                    delegate, context, catalog, schema, table,
+                    missingColumns, execution);
+            for (int i = 0; i < probed.length; i++) {
+                cardinalities[missing.get(i)] = probed[i];
+                if (probed[i] >= 0) {
+                    snapshot.put(
+                        StatisticsKey.ofColumn(
+                            catalog, schema, table, missingColumns.get(i)),
+                        probed[i],
+                        now);
+                }
+            }
+            scheduleSave(snapshot);
+        }
+        if (!staleColumns.isEmpty()) {
+            final ExecutionImpl background = backgroundExecution(execution);
+            EXECUTOR.execute(() -> {
+                try {
+                    final long[] probed =
+                        BatchStatisticsProvider.getColumnCardinalities(
+                            delegate, context, catalog, schema, table,
+                            staleColumns, background);
+                    final long observed = System.currentTimeMillis();
+                    for (int i = 0; i < probed.length; i++) {
+                        if (probed[i] >= 0) {
+                            snapshot.put(
+                                StatisticsKey.ofColumn(
+                                    catalog, schema, table,
+                                    staleColumns.get(i)),
+                                probed[i],
+                                observed);
+                        }
+                    }
+                    scheduleSave(snapshot);
+                } catch (RuntimeException e) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(
+                            "Failed to refresh cardinalities of columns "
+                                + staleColumns + " of table " + table,
+                            e);
+                    }
+                } finally {
+                    for (String column : staleColumns) {
+                        snapshot.endRefresh(
+                            StatisticsKey.ofColumn(
+                                catalog, schema, table, column));
+                    }
+                }
+            });
+        }
+        return cardinalities;
+    }
+
+    /**
+     * Writes every snapshot that changed since it was last written.
+     */
+    public void flush() {
+        for (StatisticsSnapshot snapshot : snapshots.values()) {
+            save(snapshot);
+        }
+    }
+
+    private long lookup(
+        Context context,
+        String schema,
+        StatisticsKey key,
+        ExecutionImpl execution,
+        ToLongFunction<ExecutionImpl> probe)
+    {
+        final StatisticsSnapshot snapshot = snapshot(context, schema);
+        final StatisticsSnapshot.Entry entry = snapshot.get(key);
+        final long now = System.currentTimeMillis();
+        if (entry != null) {
+            if (now - entry.observedMillis() > maxAgeMillis(context)
+                && snapshot.beginRefresh(key))
+            {
+                final ExecutionImpl background =
+                    backgroundExecution(execution);
+                EXECUTOR.execute(
+                    () -> refresh(snapshot, key, background, probe));
+            }
+            return entry.cardinality();
+        }
+        final long cardinality = probe.applyAsLong(execution);
+        if (cardinality >= 0) {
+            snapshot.put(key, cardinality, now);
+            scheduleSave(snapshot);
+        }
+        return cardinality;
+    }
+
+    private void refresh(
+        StatisticsSnapshot snapshot,
+        StatisticsKey key,
+        ExecutionImpl execution,
+        ToLongFunction<ExecutionImpl> probe)
+    {
+        try {
+            final long cardinality = probe.applyAsLong(execution);
+            if (cardinality >= 0) {
+                snapshot.put(key, cardinality, System.currentTimeMillis());
+                scheduleSave(snapshot);
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the old value; the next lookup retries.
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Failed to refresh cardinality " + key, e);
+            }
+        } finally {
+            snapshot.endRefresh(key);
+        }
+    }
+
+    private long lookupIncremental(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        final StatisticsSnapshot snapshot = snapshot(context, schema);
+        final StatisticsKey key = StatisticsKey.ofTable(catalog, schema, table);
+        final StatisticsSnapshot.Entry entry = snapshot.get(key);
+        if (entry != null) {
+            if (System.currentTimeMillis() - entry.observedMillis()
+                    > maxAgeMillis(context)
+                && snapshot.beginRefresh(key))
+            {
+                final ExecutionImpl background =
+                    backgroundExecution(execution);
+                EXECUTOR.execute(() -> {
+                    try {
+                        final StatisticsSnapshot.Entry counted = count(
+                            context, catalog, schema, table, column, entry,
+                            background);
+                        if (counted != null) {
+                            snapshot.put(key, counted);
+                            scheduleSave(snapshot);
+                        }
+                    } catch (RuntimeException e) {
+                        // Keep serving the old value; the next lookup retries.
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Failed to refresh cardinality " + key, e);
+                        }
+                    } finally {
+                        snapshot.endRefresh(key);
+                    }
+                });
+            }
+            return entry.cardinality();
+        }
+        final StatisticsSnapshot.Entry counted = count(
+            context, catalog, schema, table, column, null, execution);
+        if (counted == null) {
+            return -1;
+        }
+        snapshot.put(key, counted);
+        scheduleSave(snapshot);
+        return counted.cardinality();
+    }
+
+    /**
+     * Counts the rows of an append-only table: incrementally above the
+     * high-water mark of the previous entry if it has one, otherwise in full.
+     * Returns null if the cardinality cannot be determined.
+     */
+    private StatisticsSnapshot.Entry count(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        StatisticsSnapshot.Entry previous,
+        ExecutionImpl execution)
+    {
+        final long now = System.currentTimeMillis();
+        final HighWaterMark previousMark = previous == null
+            ? null
+            : decode(previous.highWaterMark());
+        if (previousMark != null && previousMark.column().equals(column)) {
+            try {
+                final HighWaterMark.Count delta = previousMark.countAfter(
+                    context, catalog, schema, table, execution);
+                final HighWaterMark mark = delta.highWaterMark() == null
+                    ? previousMark
+                    : delta.highWaterMark();
+                return new StatisticsSnapshot.Entry(
+                    previous.cardinality() + delta.rows(), now, mark.encode());
+            } catch (RuntimeException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
+                        "Failed to count rows of table " + table
+                            + " above high-water mark " + previousMark,
+                        e);
+                }
+            }
+        }
+        try {
+            final HighWaterMark.Count full = HighWaterMark.countAll(
+                context, catalog, schema, table, column, execution);
+            return new StatisticsSnapshot.Entry(
+                full.rows(),
+                now,
+                full.highWaterMark() == null
+                    ? null
+                    : full.highWaterMark().encode());
+        } catch (RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    "Failed to count rows and high-water mark of table "
+                        + table,
+                    e);
+            }
+        }
+        final long cardinality = delegate.getTableCardinality(
+            context, catalog, schema, table, execution);
+        return cardinality < 0
+            ? null
+            : new StatisticsSnapshot.Entry(cardinality, now, null);
+    }
+
+    /**
+     * Creates the execution of a background refresh, on the statement of the
+     * execution that requested it, or returns null if there is none. The
+     * requesting execution ends with its query, and may be cancelled or time
+     * out, while the refresh is still running.
+     */
+    private static ExecutionImpl backgroundExecution(ExecutionImpl execution) {
+        if (execution == null) {
+            return null;
+        }
+        return new ExecutionImpl(
+            execution.getDaanseStatement(), Optional.empty());
+    }
+
+    private static HighWaterMark decode(String highWaterMark) {
+        if (highWaterMark == null) {
+            return null;
+        }
+        try {
+            return HighWaterMark.decode(highWaterMark);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Ignoring bad high-water mark " + highWaterMark, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the high-water mark column configured for a table, or null.
+     */
+    static String highWaterMarkColumn(
+        Context<?> context,
+        String schema,
+        String table)
+    {
+        final String columns = context.getConfigValue(
+            HIGH_WATER_MARK_COLUMNS,
+            HIGH_WATER_MARK_COLUMNS_DEFAULT_VALUE,
+            String.class);
+        if (columns == null || columns.isBlank()) {
+            return null;
+        }
+        final String qualifiedTable =
+            schema == null ? table : schema + "." + table;
+        for (String entry : columns.split(",")) {
+            final int equals = entry.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            final String name = entry.substring(0, equals).trim();
+            if (name.equals(table) || name.equals(qualifiedTable)) {
+                return entry.substring(equals + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    private void scheduleSave(StatisticsSnapshot snapshot) {
+        if (snapshot.beginScheduleSave()) {
+            EXECUTOR.schedule(
+                () -> save(snapshot),
+                SAVE_DELAY_MILLIS,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void save(StatisticsSnapshot snapshot) {
+        try {
+            snapshot.save();
+        } catch (IOException e) {
+            LOG.warn(
+                "Failed to write statistics snapshot " + snapshot.getPath(),
+                e);
+        }
+    }
+
+    private static long maxAgeMillis(Context<?> context) {
+        return TimeUnit.SECONDS.toMillis(
+            context.getConfigValue(
+                MAX_AGE_SECONDS, MAX_AGE_SECONDS_DEFAULT_VALUE, Long.class));
+    }
+
+    private StatisticsSnapshot snapshot(Context<?> context, String schema) {
+        final Path directory = Paths.get(
+            context.getConfigValue(
+                DIRECTORY, DIRECTORY_DEFAULT_VALUE, String.class));
+        final Path path = directory.resolve(
+            fileName(context.getName()) + "-" + fileName(schema) + ".stats");
+        return snapshots.computeIfAbsent(path, StatisticsSnapshot::load);
+    }
+
+    private static String fileName(String name) {
+        if (name == null || name.isEmpty()) {
+            return "default";
+        }
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
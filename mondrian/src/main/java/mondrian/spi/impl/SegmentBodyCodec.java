@@ -0,0 +1,1091 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.eclipse.daanse.olap.key.CellKey;
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.util.Pair;
+import org.eclipse.daanse.rolap.common.agg.DenseDoubleSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.DenseIntSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.DenseObjectSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.SparseSegmentBody;
+
+/**
+ * Compact, columnar binary encoding of a {@link SegmentBody}.
+ *
+ * <p>The encoding starts with a magic number, a format version, the layout
+ * of the body (dense double, dense int, dense object or sparse) and how its
+ * cells are stored, followed by the axes, the cells and their values:
+ * <ul>
+ * <li>Each axis is its sorted key set, written once as a dictionary that
+ *     the cells refer to by ordinal, and its null flag. Integer keys are
+ *     delta-encoded, strings front-coded against their predecessor.</li>
+ * <li>The cells that hold a value are either a bitmap over all cells of the
+ *     segment, or a column of ordinals per axis. Whichever is smaller for
+ *     the density of the body is chosen, independently of whether the
+ *     engine holds it as a dense or a sparse body; empty cells cost nothing
+ *     beyond their bit or are not written at all. A sparse body with more
+ *     cells than a {@code long} can number always uses the ordinal columns,
+ *     taken from its cell keys as they are.</li>
+ * <li>Int values and axis ordinals use frame-of-reference encoding: the
+ *     minimum, then each value minus the minimum in as few bits as the range
+ *     needs.</li>
+ * <li>Object values are written as a typed column, strings through a
+ *     dictionary and {@link HyperLogLog} sketches of distinct-count cells
+ *     by their non-empty registers; values of unsupported types fall back
+ *     to Java serialization.</li>
+ * </ul>
+ *
+ * <p>{@link #decode(ByteBuffer)} reads with absolute and bulk operations
+ * straight from the buffer, which may be a slice of a memory-mapped file,
+ * and does not change its position. It returns a body of the layout that
+ * was encoded. {@link #layoutOf(ByteBuffer)} tells the layout and cell
+ * storage of an encoded body.
+ */
+public final class SegmentBodyCodec {
+    static final int MAGIC = 0x4D534243; // "MSBC"
+    static final byte FORMAT_VERSION = 3;
+
+    static final byte LAYOUT_DENSE_DOUBLE = 1;
+    static final byte LAYOUT_DENSE_INT = 2;
+    static final byte LAYOUT_DENSE_OBJECT = 3;
+    static final byte LAYOUT_SPARSE = 4;
+
+    static final byte CELLS_BITMAP = 1;
+    static final byte CELLS_COORDINATES = 2;
+
+    private static final String[] LAYOUT_NAMES =
+        {null, "dense-double", "dense-int", "dense-object", "sparse"};
+    private static final String[] CELLS_NAMES =
+        {null, "bitmap", "coordinates"};
+
+    static final byte TYPE_EMPTY = 0;
+    static final byte TYPE_INT = 1;
+    static final byte TYPE_LONG = 2;
+    static final byte TYPE_DOUBLE = 3;
+    static final byte TYPE_STRING = 4;
+    static final byte TYPE_BIG_DECIMAL = 5;
+    static final byte TYPE_SERIALIZED = 6;
+    static final byte TYPE_SKETCH = 7;
+
+    private SegmentBodyCodec() {
+    }
+
+    /**
+     * Encodes a segment body.
+     *
+     * @return Buffer positioned at 0 whose remaining bytes are the encoding
+     */
+    public static ByteBuffer encode(SegmentBody body) {
+        final SortedSet<Comparable>[] axisValueSets = body.getAxisValueSets();
+        final boolean[] nullAxisFlags = body.getNullAxisFlags();
+        final int[] axisSizes = axisSizes(axisValueSets, nullAxisFlags);
+        final Object values =
+            body instanceof SparseSegmentBody ? null : body.getValueArray();
+
+        // Positions of the cells that hold a value, ascending, and their
+        // values in the same order.
+        final byte layout;
+        final long cellCount;
+        final long[] positions;
+        final Object presentValues;
+        // Ordinals per axis of the cells of a sparse body whose positions
+        // do not fit a long; null otherwise.
+        int[][] wideOrdinals = null;
+        if (values instanceof double[] doubles) {
+            layout = LAYOUT_DENSE_DOUBLE;
+            cellCount = doubles.length;
+            positions = present(body.getNullValueIndicators(), doubles.length);
+            final double[] present = new double[positions.length];
+            for (int i = 0; i < present.length; i++) {
+                present[i] = doubles[(int) positions[i]];
+            }
+            presentValues = present;
+        } else if (values instanceof int[] ints) {
+            layout = LAYOUT_DENSE_INT;
+            cellCount = ints.length;
+            positions = present(body.getNullValueIndicators(), ints.length);
+            final int[] present = new int[positions.length];
+            for (int i = 0; i < present.length; i++) {
+                present[i] = ints[(int) positions[i]];
+            }
+            presentValues = present;
+        } else if (values instanceof Object[] objects) {
+            layout = LAYOUT_DENSE_OBJECT;
+            cellCount = objects.length;
+            final BitSet nulls = new BitSet(objects.length);
+            for (int i = 0; i < objects.length; i++) {
+                if (objects[i] == null) {
+                    nulls.set(i);
+                }
+            }
+            positions = present(nulls, objects.length);
+            final List<Object> present = new ArrayList<>(positions.length);
+            for (long position : positions) {
+                present.add(objects[(int) position]);
+            }
+            presentValues = present;
+        } else {
+            layout = LAYOUT_SPARSE;
+            final Map<CellKey, Object> cells = body.getValueMap();
+            final long product = cellCount(axisSizes);
+            if (product < 0) {
+                cellCount = Long.MAX_VALUE;
+                positions = null;
+                wideOrdinals = new int[axisSizes.length][cells.size()];
+                final List<Object> present = new ArrayList<>(cells.size());
+                for (Map.Entry<CellKey, Object> cell : cells.entrySet()) {
+                    final int[] key = cell.getKey().getOrdinals();
+                    for (int a = 0; a < key.length; a++) {
+                        wideOrdinals[a][present.size()] = key[a];
+                    }
+                    present.add(cell.getValue());
+                }
+                presentValues = present;
+            } else {
+                cellCount = product;
+                final Object[] cellValues = new Object[cells.size()];
+                positions = new long[cells.size()];
+                int i = 0;
+                for (Map.Entry<CellKey, Object> cell : cells.entrySet()) {
+                    positions[i] =
+                        linearize(cell.getKey().getOrdinals(), axisSizes);
+                    cellValues[i] = cell.getValue();
+                    ++i;
+                }
+                final int[] order = sortedOrder(positions, cellCount);
+                final List<Object> present = new ArrayList<>(order.length);
+                for (int index : order) {
+                    present.add(cellValues[index]);
+                }
+                presentValues = present;
+            }
+        }
+
+        final byte cellStorage = positions != null
+            && bitmapBytes(cellCount)
+                <= coordinateBytes(positions.length, axisSizes)
+                ? CELLS_BITMAP
+                : CELLS_COORDINATES;
+        final Output out = new Output();
+        out.putInt(MAGIC);
+        out.put(FORMAT_VERSION);
+        out.put(layout);
+        out.put(cellStorage);
+        writeAxes(out, axisValueSets, nullAxisFlags);
+        out.putVarLong(cellCount);
+        if (cellStorage == CELLS_BITMAP) {
+            final BitSet bits = new BitSet((int) cellCount);
+            for (long position : positions) {
+                bits.set((int) position);
+            }
+            writeBitSet(out, bits);
+        } else if (wideOrdinals != null) {
+            out.putVarInt(wideOrdinals[0].length);
+            for (int[] axisOrdinals : wideOrdinals) {
+                writePacked(out, axisOrdinals);
+            }
+        } else {
+            final int[][] ordinals =
+                new int[axisSizes.length][positions.length];
+            final int[] key = new int[axisSizes.length];
+            for (int i = 0; i < positions.length; i++) {
+                delinearize(positions[i], axisSizes, key);
+                for (int a = 0; a < key.length; a++) {
+                    ordinals[a][i] = key[a];
+                }
+            }
+            out.putVarInt(positions.length);
+            for (int[] axisOrdinals : ordinals) {
+                writePacked(out, axisOrdinals);
+            }
+        }
+        if (presentValues instanceof double[] doubles) {
+            for (double d : doubles) {
+                out.putDouble(d);
+            }
+        } else if (presentValues instanceof int[] ints) {
+            writePacked(out, ints);
+        } else {
+            writeValues(out, (List<?>) presentValues);
+        }
+        return out.toByteBuffer();
+    }
+
+    /**
+     * Decodes a segment body from the remaining bytes of a buffer. The
+     * buffer's position is not changed.
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded body
+     */
+    public static SegmentBody decode(ByteBuffer buffer) {
+        final Input in = new Input(buffer);
+        checkHeader(in);
+        final byte layout = in.get();
+        final byte cellStorage = in.get();
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes = readAxes(in);
+        final int[] axisSizes = new int[axes.size()];
+        for (int a = 0; a < axisSizes.length; a++) {
+            axisSizes[a] = axes.get(a).left.size()
+                + (axes.get(a).right ? 1 : 0);
+        }
+        final long cellCount = in.getVarLong();
+        final boolean wide =
+            layout == LAYOUT_SPARSE && cellCount(axisSizes) < 0;
+        final long[] positions;
+        // Ordinals per axis of the cells of a sparse body whose positions
+        // do not fit a long; null otherwise.
+        int[][] wideOrdinals = null;
+        switch (cellStorage) {
+        case CELLS_BITMAP:
+            if (wide) {
+                throw new IllegalArgumentException(
+                    "Segment too large for a cell bitmap");
+            }
+            positions = readBitSet(in).stream().asLongStream().toArray();
+            break;
+        case CELLS_COORDINATES: {
+            positions = new long[in.getVarInt()];
+            final int[][] ordinals = new int[axisSizes.length][];
+            for (int a = 0; a < ordinals.length; a++) {
+                ordinals[a] = readPacked(in);
+            }
+            if (wide) {
+                wideOrdinals = ordinals;
+                break;
+            }
+            final int[] key = new int[axisSizes.length];
+            for (int i = 0; i < positions.length; i++) {
+                for (int a = 0; a < key.length; a++) {
+                    key[a] = ordinals[a][i];
+                }
+                positions[i] = linearize(key, axisSizes);
+            }
+            break;
+        }
+        default:
+            throw new IllegalArgumentException(
+                "Unknown segment cell storage " + cellStorage);
+        }
+        if (layout != LAYOUT_SPARSE && cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dense segment too large");
+        }
+        final int denseCount = (int) Math.min(cellCount, Integer.MAX_VALUE);
+        switch (layout) {
+        case LAYOUT_DENSE_DOUBLE: {
+            final BitSet nulls = nulls(positions, denseCount);
+            final double[] values = new double[denseCount];
+            for (long position : positions) {
+                values[(int) position] = in.getDouble();
+            }
+            return new DenseDoubleSegmentBody(nulls, values, axes);
+        }
+        case LAYOUT_DENSE_INT: {
+            final BitSet nulls = nulls(positions, denseCount);
+            final int[] present = readPacked(in);
+            final int[] values = new int[denseCount];
+            for (int i = 0; i < positions.length; i++) {
+                values[(int) positions[i]] = present[i];
+            }
+            return new DenseIntSegmentBody(nulls, values, axes);
+        }
+        case LAYOUT_DENSE_OBJECT: {
+            final List<Object> present = readValues(in);
+            final Object[] values = new Object[denseCount];
+            for (int i = 0; i < positions.length; i++) {
+                values[(int) positions[i]] = present.get(i);
+            }
+            return new DenseObjectSegmentBody(values, axes);
+        }
+        case LAYOUT_SPARSE: {
+            final List<Object> present = readValues(in);
+            final Map<CellKey, Object> cells =
+                new HashMap<>(positions.length * 2);
+            for (int i = 0; i < positions.length; i++) {
+                final int[] key = new int[axisSizes.length];
+                if (wideOrdinals == null) {
+                    delinearize(positions[i], axisSizes, key);
+                } else {
+                    for (int a = 0; a < key.length; a++) {
+                        key[a] = wideOrdinals[a][i];
+                    }
+                }
+                cells.put(CellKey.Generator.newCellKey(key), present.get(i));
+            }
+            return new SparseSegmentBody(cells, axes);
+        }
+        default:
+            throw new IllegalArgumentException(
+                "Unknown segment body layout " + layout);
+        }
+    }
+
+    /**
+     * Returns the layout and cell storage of an encoded body, for instance
+     * {@code "dense-int/bitmap"} or {@code "sparse/coordinates"}. The
+     * buffer's position is not changed.
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded body
+     */
+    public static String layoutOf(ByteBuffer buffer) {
+        final Input in = new Input(buffer);
+        checkHeader(in);
+        final byte layout = in.get();
+        final byte cellStorage = in.get();
+        if (layout < 1 || layout >= LAYOUT_NAMES.length
+            || cellStorage < 1 || cellStorage >= CELLS_NAMES.length)
+        {
+            throw new IllegalArgumentException("Unknown segment body layout");
+        }
+        return LAYOUT_NAMES[layout] + "/" + CELLS_NAMES[cellStorage];
+    }
+
+    private static void checkHeader(Input in) {
+        if (in.getInt() != MAGIC || in.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not an encoded segment body");
+        }
+    }
+
+    /**
+     * Returns the number of keys of each axis, counting null as a key if the
+     * axis has one.
+     */
+    private static int[] axisSizes(
+        SortedSet<Comparable>[] axisValueSets,
+        boolean[] nullAxisFlags)
+    {
+        final int[] sizes = new int[axisValueSets.length];
+        for (int a = 0; a < sizes.length; a++) {
+            sizes[a] = axisValueSets[a].size()
+                + (nullAxisFlags != null && nullAxisFlags[a] ? 1 : 0);
+        }
+        return sizes;
+    }
+
+    /**
+     * Returns the number of cells of a segment with the given axis sizes,
+     * or -1 if it is more than a {@code long} can hold, in which case cells
+     * have no {@link #linearize position}.
+     */
+    private static long cellCount(int[] axisSizes) {
+        long count = 1;
+        for (int size : axisSizes) {
+            if (size > 0 && count > Long.MAX_VALUE / size) {
+                return -1;
+            }
+            count *= size;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the position of a cell in row-major order, the order of the
+     * value arrays of dense bodies. The position is only defined if
+     * {@link #cellCount} fits a {@code long}.
+     */
+    private static long linearize(int[] key, int[] axisSizes) {
+        long position = 0;
+        for (int a = 0; a < axisSizes.length; a++) {
+            position = position * axisSizes[a] + key[a];
+        }
+        return position;
+    }
+
+    private static void delinearize(long position, int[] axisSizes, int[] key) {
+        for (int a = axisSizes.length - 1; a >= 0; a--) {
+            key[a] = (int) (position % axisSizes[a]);
+            position /= axisSizes[a];
+        }
+    }
+
+    /**
+     * Sorts cell positions in place and returns the original index of each
+     * sorted position.
+     *
+     * <p>If positions fit in 31 bits, each one is packed with its index
+     * into a single {@code long} and sorted as a primitive array, which
+     * allocates nothing per cell. Only segments with more cells than that
+     * are sorted as boxed pairs.
+     */
+    private static int[] sortedOrder(long[] positions, long cellCount) {
+        final int[] order = new int[positions.length];
+        if (cellCount <= Integer.MAX_VALUE) {
+            final long[] packed = new long[positions.length];
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = positions[i] << 32 | i;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < packed.length; i++) {
+                positions[i] = packed[i] >>> 32;
+                order[i] = (int) packed[i];
+            }
+            return order;
+        }
+        final Integer[] boxed = new Integer[positions.length];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        final long[] unsorted = positions.clone();
+        Arrays.sort(boxed, Comparator.comparingLong(i -> unsorted[i]));
+        for (int i = 0; i < boxed.length; i++) {
+            order[i] = boxed[i];
+            positions[i] = unsorted[boxed[i]];
+        }
+        return order;
+    }
+
+    private static long bitmapBytes(long cellCount) {
+        return cellCount > Integer.MAX_VALUE ? Long.MAX_VALUE : cellCount / 8;
+    }
+
+    private static long coordinateBytes(int presentCount, int[] axisSizes) {
+        long bits = 0;
+        for (int size : axisSizes) {
+            bits += 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 0));
+        }
+        return presentCount * bits / 8;
+    }
+
+    private static long[] present(BitSet nulls, int cellCount) {
+        final BitSet present = new BitSet(cellCount);
+        present.set(0, cellCount);
+        if (nulls != null) {
+            present.andNot(nulls);
+        }
+        return present.stream().asLongStream().toArray();
+    }
+
+    private static BitSet nulls(long[] positions, int cellCount) {
+        final BitSet nulls = new BitSet(cellCount);
+        nulls.set(0, cellCount);
+        for (long position : positions) {
+            nulls.clear((int) position);
+        }
+        return nulls;
+    }
+
+    private static void writeAxes(
+        Output out,
+        SortedSet<Comparable>[] axisValueSets,
+        boolean[] nullAxisFlags)
+    {
+        out.putVarInt(axisValueSets.length);
+        for (int a = 0; a < axisValueSets.length; a++) {
+            out.put((byte) (nullAxisFlags != null && nullAxisFlags[a] ? 1 : 0));
+            writeValues(out, new ArrayList<>(axisValueSets[a]));
+        }
+    }
+
+    private static List<Pair<SortedSet<Comparable>, Boolean>> readAxes(
+        Input in)
+    {
+        final int axisCount = in.getVarInt();
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes =
+            new ArrayList<>(axisCount);
+        for (int a = 0; a < axisCount; a++) {
+            final boolean nullAxis = in.get() != 0;
+            final SortedSet<Comparable> values = new TreeSet<>();
+            for (Object value : readValues(in)) {
+                values.add((Comparable) value);
+            }
+            axes.add(Pair.of(values, nullAxis));
+        }
+        return axes;
+    }
+
+    private static void writeBitSet(Output out, BitSet bits) {
+        final long[] words = bits.toLongArray();
+        out.putVarInt(words.length);
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    private static BitSet readBitSet(Input in) {
+        final long[] words = new long[in.getVarInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Writes ints with frame-of-reference encoding: count, minimum, bit
+     * width and the bit-packed offsets from the minimum.
+     */
+    static void writePacked(Output out, int[] values) {
+        out.putVarInt(values.length);
+        if (values.length == 0) {
+            return;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        final int width = 64 - Long.numberOfLeadingZeros((long) max - min);
+        out.putInt(min);
+        out.put((byte) width);
+        if (width == 0) {
+            return;
+        }
+        final long[] words = new long[(int) (((long) values.length * width + 63) / 64)];
+        long bit = 0;
+        for (int value : values) {
+            final long offset = (long) value - min;
+            final int word = (int) (bit >>> 6);
+            final int shift = (int) (bit & 63);
+            words[word] |= offset << shift;
+            if (shift + width > 64) {
+                words[word + 1] |= offset >>> (64 - shift);
+            }
+            bit += width;
+        }
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    static int[] readPacked(Input in) {
+        final int[] values = new int[in.getVarInt()];
+        if (values.length == 0) {
+            return values;
+        }
+        final int min = in.getInt();
+        final int width = in.get();
+        if (width == 0) {
+            Arrays.fill(values, min);
+            return values;
+        }
+        final int wordCount = (int) (((long) values.length * width + 63) / 64);
+        final int start = in.skip(wordCount * 8);
+        final long mask = width == 64 ? -1L : (1L << width) - 1;
+        long bit = 0;
+        for (int i = 0; i < values.length; i++) {
+            final int word = (int) (bit >>> 6);
+            final int shift = (int) (bit & 63);
+            long offset = in.buffer.getLong(start + word * 8) >>> shift;
+            if (shift + width > 64) {
+                offset |= in.buffer.getLong(start + (word + 1) * 8)
+                    << (64 - shift);
+            }
+            values[i] = (int) (min + (offset & mask));
+            bit += width;
+        }
+        return values;
+    }
+
+    /**
+     * Writes a column of values, with an encoding chosen by the type they
+     * all share. Columns that mix types or contain nulls are serialized.
+     */
+    static void writeValues(Output out, List<?> values) {
+        final byte type = typeOf(values);
+        out.put(type);
+        out.putVarInt(values.size());
+        switch (type) {
+        case TYPE_EMPTY:
+            break;
+        case TYPE_INT: {
+            final int[] ints = new int[values.size()];
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = (Integer) values.get(i);
+            }
+            if (isAscending(ints)) {
+                // Sorted key set: small deltas.
+                out.put((byte) 1);
+                long previous = 0;
+                for (int value : ints) {
+                    out.putVarLong(zigZag(value - previous));
+                    previous = value;
+                }
+            } else {
+                out.put((byte) 0);
+                writePacked(out, ints);
+            }
+            break;
+        }
+        case TYPE_LONG: {
+            long previous = 0;
+            for (Object value : values) {
+                final long l = (Long) value;
+                out.putVarLong(zigZag(l - previous));
+                previous = l;
+            }
+            break;
+        }
+        case TYPE_DOUBLE:
+            for (Object value : values) {
+                out.putDouble((Double) value);
+            }
+            break;
+        case TYPE_STRING:
+            writeStrings(out, values);
+            break;
+        case TYPE_BIG_DECIMAL:
+            for (Object value : values) {
+                final BigDecimal decimal = (BigDecimal) value;
+                out.putVarLong(zigZag(decimal.scale()));
+                final byte[] unscaled = decimal.unscaledValue().toByteArray();
+                out.putVarInt(unscaled.length);
+                out.put(unscaled);
+            }
+            break;
+        case TYPE_SKETCH:
+            for (Object value : values) {
+                writeSketch(out, (HyperLogLog) value);
+            }
+            break;
+        default:
+            final byte[] bytes = serialize(values);
+            out.putVarInt(bytes.length);
+            out.put(bytes);
+            break;
+        }
+    }
+
+    static List<Object> readValues(Input in) {
+        final byte type = in.get();
+        final int count = in.getVarInt();
+        final List<Object> values = new ArrayList<>(count);
+        switch (type) {
+        case TYPE_EMPTY:
+            break;
+        case TYPE_INT:
+            if (in.get() == 1) {
+                long previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += unZigZag(in.getVarLong());
+                    values.add((int) previous);
+                }
+            } else {
+                for (int value : readPacked(in)) {
+                    values.add(value);
+                }
+            }
+            break;
+        case TYPE_LONG: {
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unZigZag(in.getVarLong());
+                values.add(previous);
+            }
+            break;
+        }
+        case TYPE_DOUBLE:
+            for (int i = 0; i < count; i++) {
+                values.add(in.getDouble());
+            }
+            break;
+        case TYPE_STRING:
+            readStrings(in, count, values);
+            break;
+        case TYPE_BIG_DECIMAL:
+            for (int i = 0; i < count; i++) {
+                final int scale = (int) unZigZag(in.getVarLong());
+                final byte[] unscaled = in.getBytes(in.getVarInt());
+                values.add(new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            break;
+        case TYPE_SKETCH:
+            for (int i = 0; i < count; i++) {
+                values.add(readSketch(in));
+            }
+            break;
+        case TYPE_SERIALIZED:
+            values.addAll(deserialize(in.getBytes(in.getVarInt())));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown value type " + type);
+        }
+        return values;
+    }
+
+    private static byte typeOf(List<?> values) {
+        if (values.isEmpty()) {
+            return TYPE_EMPTY;
+        }
+        final Object first = values.get(0);
+        final Class<?> clazz = first == null ? null : first.getClass();
+        for (Object value : values) {
+            if (value == null || value.getClass() != clazz) {
+                return TYPE_SERIALIZED;
+            }
+        }
+        if (clazz == Integer.class) {
+            return TYPE_INT;
+        }
+        if (clazz == Long.class) {
+            return TYPE_LONG;
+        }
+        if (clazz == Double.class) {
+            return TYPE_DOUBLE;
+        }
+        if (clazz == String.class) {
+            return TYPE_STRING;
+        }
+        if (clazz == BigDecimal.class) {
+            return TYPE_BIG_DECIMAL;
+        }
+        if (clazz == HyperLogLog.class) {
+            return TYPE_SKETCH;
+        }
+        return TYPE_SERIALIZED;
+    }
+
+    /**
+     * Writes the registers of a sketch. A sketch of few distinct values has
+     * mostly empty registers; only the others are written, as gaps between
+     * their indexes and packed values.
+     */
+    private static void writeSketch(Output out, HyperLogLog sketch) {
+        final byte[] registers = sketch.getRegisters();
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                ++used;
+            }
+        }
+        out.put((byte) sketch.getPrecision());
+        if (used < registers.length / 4) {
+            out.put((byte) 1);
+            out.putVarInt(used);
+            final int[] ranks = new int[used];
+            int previous = -1;
+            int n = 0;
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    out.putVarInt(i - previous - 1);
+                    previous = i;
+                    ranks[n++] = registers[i];
+                }
+            }
+            writePacked(out, ranks);
+        } else {
+            out.put((byte) 0);
+            final int[] ranks = new int[registers.length];
+            for (int i = 0; i < ranks.length; i++) {
+                ranks[i] = registers[i];
+            }
+            writePacked(out, ranks);
+        }
+    }
+
+    private static HyperLogLog readSketch(Input in) {
+        final byte[] registers = new byte[1 << in.get()];
+        if (in.get() == 1) {
+            final int[] indexes = new int[in.getVarInt()];
+            int previous = -1;
+            for (int i = 0; i < indexes.length; i++) {
+                previous += in.getVarInt() + 1;
+                indexes[i] = previous;
+            }
+            final int[] ranks = readPacked(in);
+            for (int i = 0; i < indexes.length; i++) {
+                registers[indexes[i]] = (byte) ranks[i];
+            }
+        } else {
+            final int[] ranks = readPacked(in);
+            for (int i = 0; i < ranks.length; i++) {
+                registers[i] = (byte) ranks[i];
+            }
+        }
+        return HyperLogLog.of(registers);
+    }
+
+    private static boolean isAscending(int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes strings front-coded if they are sorted, as axis key sets are;
+     * otherwise as a dictionary of distinct strings plus packed indexes.
+     */
+    private static void writeStrings(Output out, List<?> values) {
+        boolean sorted = true;
+        for (int i = 1; i < values.size() && sorted; i++) {
+            sorted = ((String) values.get(i - 1))
+                .compareTo((String) values.get(i)) < 0;
+        }
+        if (sorted) {
+            out.put((byte) 1);
+            String previous = "";
+            for (Object value : values) {
+                final String s = (String) value;
+                int prefix = 0;
+                final int max = Math.min(previous.length(), s.length());
+                while (prefix < max
+                    && previous.charAt(prefix) == s.charAt(prefix))
+                {
+                    ++prefix;
+                }
+                if (prefix > 0
+                    && Character.isHighSurrogate(s.charAt(prefix - 1)))
+                {
+                    // Do not split a surrogate pair.
+                    --prefix;
+                }
+                out.putVarInt(prefix);
+                putString(out, s.substring(prefix));
+                previous = s;
+            }
+            return;
+        }
+        out.put((byte) 0);
+        final Map<String, Integer> dictionary = new HashMap<>();
+        final List<String> distinct = new ArrayList<>();
+        final int[] indexes = new int[values.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            final String s = (String) values.get(i);
+            Integer index = dictionary.get(s);
+            if (index == null) {
+                index = distinct.size();
+                dictionary.put(s, index);
+                distinct.add(s);
+            }
+            indexes[i] = index;
+        }
+        out.putVarInt(distinct.size());
+        for (String s : distinct) {
+            putString(out, s);
+        }
+        writePacked(out, indexes);
+    }
+
+    private static void readStrings(Input in, int count, List<Object> values) {
+        if (in.get() == 1) {
+            String previous = "";
+            for (int i = 0; i < count; i++) {
+                final int prefix = in.getVarInt();
+                final String s = previous.substring(0, prefix) + getString(in);
+                values.add(s);
+                previous = s;
+            }
+            return;
+        }
+        final String[] distinct = new String[in.getVarInt()];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = getString(in);
+        }
+        for (int index : readPacked(in)) {
+            values.add(distinct[index]);
+        }
+    }
+
+    private static void putString(Output out, String s) {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putVarInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(Input in) {
+        final int length = in.getVarInt();
+        final int start = in.skip(length);
+        if (in.buffer.hasArray()) {
+            return new String(
+                in.buffer.array(),
+                in.buffer.arrayOffset() + start,
+                length,
+                StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[length];
+        in.buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] serialize(List<?> values) {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(new ArrayList<>(values));
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                "Cannot serialize segment values", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> deserialize(byte[] bytes) {
+        try (ObjectInputStream in =
+                 new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return (List<Object>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException(
+                "Cannot deserialize segment values", e);
+        }
+    }
+
+    /**
+     * Growable little-endian output buffer.
+     */
+    static final class Output {
+        private ByteBuffer buffer =
+            ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                final ByteBuffer larger = ByteBuffer
+                    .allocate(Math.max(buffer.capacity() * 2,
+                        buffer.position() + bytes))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        void put(byte b) {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putInt(int i) {
+            ensure(4);
+            buffer.putInt(i);
+        }
+
+        void putLong(long l) {
+            ensure(8);
+            buffer.putLong(l);
+        }
+
+        void putDouble(double d) {
+            ensure(8);
+            buffer.putDouble(d);
+        }
+
+        void putVarInt(int i) {
+            putVarLong(i & 0xFFFFFFFFL);
+        }
+
+        void putVarLong(long l) {
+            ensure(10);
+            while ((l & ~0x7FL) != 0) {
+                buffer.put((byte) ((l & 0x7F) | 0x80));
+                l >>>= 7;
+            }
+            buffer.put((byte) l);
+        }
+
+        ByteBuffer toByteBuffer() {
+            final ByteBuffer result = buffer.duplicate();
+            result.flip();
+            return result.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Reader over a buffer that uses absolute reads only, so that the
+     * buffer's own position is left alone.
+     */
+    static final class Input {
+        final ByteBuffer buffer;
+        private int position;
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Skips bytes and returns the position of the first one.
+         */
+        int skip(int bytes) {
+            final int start = position;
+            if (bytes < 0 || start + bytes > buffer.limit()) {
+                throw new IllegalArgumentException("Truncated segment body");
+            }
+            position += bytes;
+            return start;
+        }
+
+        byte get() {
+            return buffer.get(skip(1));
+        }
+
+        byte[] getBytes(int length) {
+            final byte[] bytes = new byte[length];
+            buffer.get(skip(length), bytes);
+            return bytes;
+        }
+
+        int getInt() {
+            return buffer.getInt(skip(4));
+        }
+
+        long getLong() {
+            return buffer.getLong(skip(8));
+        }
+
+        double getDouble() {
+            return buffer.getDouble(skip(8));
+        }
+
+        int getVarInt() {
+            return (int) getVarLong();
+        }
+
+        long getVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = get();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+}
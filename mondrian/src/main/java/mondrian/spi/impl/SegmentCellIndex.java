@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedSet;
+
+import org.eclipse.daanse.olap.key.CellKey;
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.rolap.common.agg.SparseSegmentBody;
+
+/**
+ * Looks up the cells of a {@link SegmentBody} by their axis ordinals
+ * without creating a {@link CellKey} per lookup.
+ *
+ * <p>The ordinals of a cell are combined into a single {@code long} key,
+ * its position in row-major order over the axes: the same position that
+ * indexes the value array of a dense body. A dense body is read at that
+ * position directly. The cells of a sparse body are held in an
+ * open-addressing table of {@code long} keys. Only a sparse body with more
+ * cells than a {@code long} can number, which is one with very many wide
+ * axes, falls back to its map of {@link CellKey}s, and allocates a key per
+ * lookup.
+ *
+ * <p>A caller that looks up many cells reuses one ordinal array, or computes
+ * {@link #key(int...)} once and calls {@link #get(long)}. For dense double
+ * and int bodies, {@link #isNull(long)} with {@link #getDouble(long)} or
+ * {@link #getInt(long)} avoid boxing the value.
+ */
+public final class SegmentCellIndex {
+    private static final long EMPTY = -1;
+
+    private final int[] axisSizes;
+    private final boolean packable;
+
+    // Dense body: its value array and, for doubles and ints, null cells.
+    private final Object values;
+    private final BitSet nulls;
+
+    // Sparse body whose positions fit a long.
+    private final long[] keys;
+    private final Object[] cellValues;
+    private final int mask;
+
+    // Sparse body whose positions do not fit a long.
+    private final Map<CellKey, Object> wide;
+
+    private SegmentCellIndex(SegmentBody body) {
+        final SortedSet<Comparable>[] axisValueSets = body.getAxisValueSets();
+        final boolean[] nullAxisFlags = body.getNullAxisFlags();
+        axisSizes = new int[axisValueSets.length];
+        long cellCount = 1;
+        boolean fits = true;
+        for (int a = 0; a < axisSizes.length; a++) {
+            axisSizes[a] = axisValueSets[a].size()
+                + (nullAxisFlags != null && nullAxisFlags[a] ? 1 : 0);
+            if (fits && axisSizes[a] > 0
+                && cellCount > Long.MAX_VALUE / axisSizes[a])
+            {
+                fits = false;
+            }
+            cellCount *= axisSizes[a];
+        }
+        packable = fits;
+        if (!(body instanceof SparseSegmentBody)) {
+            values = body.getValueArray();
+            nulls = values instanceof Object[]
+                ? null
+                : body.getNullValueIndicators();
+            keys = null;
+            cellValues = null;
+            mask = 0;
+            wide = null;
+        } else if (packable) {
+            values = null;
+            nulls = null;
+            final Map<CellKey, Object> cells = body.getValueMap();
+            final int capacity =
+                Integer.highestOneBit(Math.max(cells.size(), 1) * 2 - 1) << 1;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            cellValues = new Object[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<CellKey, Object> cell : cells.entrySet()) {
+                final long key = key(cell.getKey().getOrdinals());
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                cellValues[slot] = cell.getValue();
+            }
+            wide = null;
+        } else {
+            values = null;
+            nulls = null;
+            keys = null;
+            cellValues = null;
+            mask = 0;
+            wide = body.getValueMap();
+        }
+    }
+
+    /**
+     * Creates an index over the cells of a body.
+     */
+    public static SegmentCellIndex of(SegmentBody body) {
+        return new SegmentCellIndex(body);
+    }
+
+    /**
+     * Returns the key of the cell with the given ordinals, or -1 if an
+     * ordinal is out of range or the body has too many cells for a
+     * {@code long} key.
+     */
+    public long key(int... ordinals) {
+        if (!packable || ordinals.length != axisSizes.length) {
+            return -1;
+        }
+        long key = 0;
+        for (int a = 0; a < axisSizes.length; a++) {
+            if (ordinals[a] < 0 || ordinals[a] >= axisSizes[a]) {
+                return -1;
+            }
+            key = key * axisSizes[a] + ordinals[a];
+        }
+        return key;
+    }
+
+    /**
+     * Returns the value of the cell with the given key, or null if it has
+     * none.
+     */
+    public Object get(long key) {
+        if (key < 0) {
+            return null;
+        }
+        if (values != null) {
+            if (key >= Integer.MAX_VALUE || isNull(key)) {
+                return null;
+            }
+            if (values instanceof double[] doubles) {
+                return key < doubles.length ? doubles[(int) key] : null;
+            }
+            if (values instanceof int[] ints) {
+                return key < ints.length ? ints[(int) key] : null;
+            }
+            final Object[] objects = (Object[]) values;
+            return key < objects.length ? objects[(int) key] : null;
+        }
+        if (keys == null) {
+            return null;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return cellValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the cell with the given ordinals, or null if it
+     * has none.
+     */
+    public Object get(int... ordinals) {
+        if (wide != null) {
+            return wide.get(CellKey.Generator.newCellKey(ordinals.clone()));
+        }
+        return get(key(ordinals));
+    }
+
+    /**
+     * Returns whether the cell with the given key of a dense double or int
+     * body is null.
+     */
+    public boolean isNull(long key) {
+        return nulls != null && nulls.get((int) key);
+    }
+
+    /**
+     * Returns the value of the cell with the given key of a dense double
+     * body.
+     */
+    public double getDouble(long key) {
+        return ((double[]) values)[(int) key];
+    }
+
+    /**
+     * Returns the value of the cell with the given key of a dense int body.
+     */
+    public int getInt(long key) {
+        return ((int[]) values)[(int) key];
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
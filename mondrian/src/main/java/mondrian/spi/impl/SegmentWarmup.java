@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.spi.SegmentCache;
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Records which segments are used and loads the most used ones into a
+ * cache ahead of the queries that need them.
+ *
+ * <p>{@link #recording(SegmentCache)} wraps the cache the engine reads
+ * segments from; every segment it returns counts as a hit. Segments not hit
+ * within the window expire, so the recorded usages stay bounded by the
+ * segments used within one window. {@link #save()} writes the hit counts to
+ * a file, which the next instance reads when it is created.
+ *
+ * <p>{@link #warm(SegmentCache, SegmentCache, long, double)} copies the
+ * recorded segments, most hit first, from a cache that still holds them,
+ * such as a {@link FileSegmentCache}, into one that the engine reads first,
+ * such as an {@link OffHeapSegmentCache}. It runs on a background thread at
+ * a limited rate and stops when a byte budget is spent; its
+ * {@link Progress} tells how far it got.
+ */
+public class SegmentWarmup {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(SegmentWarmup.class);
+
+    static final int MAGIC = 0x4D535755; // "MSWU"
+    static final int FORMAT_VERSION = 1;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Path path;
+
+    private final long windowMillis;
+
+    private final Cache<SegmentHeader, Usage> usages;
+
+    /**
+     * Creates a warmup that persists its hit counts in the given file and
+     * forgets segments not hit within the given number of milliseconds.
+     */
+    public SegmentWarmup(Path path, long windowMillis) {
+        this.path = path.toAbsolutePath();
+        this.windowMillis = windowMillis;
+        this.usages = Caffeine.newBuilder()
+            .expireAfter(new UsageExpiry(windowMillis))
+            .build();
+        load();
+    }
+
+    /**
+     * Returns a cache that delegates to the given cache and records a hit
+     * for every segment it returns.
+     */
+    public SegmentCache recording(SegmentCache cache) {
+        return new RecordingSegmentCache(cache);
+    }
+
+    /**
+     * Records a hit of a segment.
+     */
+    public void recordHit(SegmentHeader header) {
+        // An update, so that the expiry sees the new last hit.
+        usages.asMap().compute(header, (h, usage) -> {
+            final Usage updated = usage == null ? new Usage() : usage;
+            updated.hit(System.currentTimeMillis());
+            return updated;
+        });
+    }
+
+    /**
+     * Returns the segments hit within the window, most hit first; segments
+     * hit equally often are ordered by their last hit, latest first.
+     */
+    public List<SegmentHeader> getHotSegments() {
+        final long since = System.currentTimeMillis() - windowMillis;
+        final List<Map.Entry<SegmentHeader, Usage>> entries =
+            new ArrayList<>();
+        for (Map.Entry<SegmentHeader, Usage> entry
+            : usages.asMap().entrySet())
+        {
+            if (entry.getValue().lastHitMillis.get() >= since) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(
+            Comparator.comparingLong(
+                    (Map.Entry<SegmentHeader, Usage> e) ->
+                        e.getValue().hits.get())
+                .thenComparingLong(e -> e.getValue().lastHitMillis.get())
+                .reversed());
+        final List<SegmentHeader> headers = new ArrayList<>(entries.size());
+        for (Map.Entry<SegmentHeader, Usage> entry : entries) {
+            headers.add(entry.getKey());
+        }
+        return headers;
+    }
+
+    /**
+     * Writes the hit counts of the segments hit within the window, via a
+     * temporary file that atomically replaces the previous one.
+     */
+    public void save() throws IOException {
+        final List<SegmentHeader> headers = getHotSegments();
+        Files.createDirectories(path.getParent());
+        final Path temp = Files.createTempFile(
+            path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(headers.size());
+                final ObjectOutputStream objects = new ObjectOutputStream(out);
+                for (SegmentHeader header : headers) {
+                    final Usage usage =
+                        usages.asMap().getOrDefault(header, new Usage());
+                    objects.writeLong(usage.hits.get());
+                    objects.writeLong(usage.lastHitMillis.get());
+                    objects.writeObject(header);
+                }
+                objects.flush();
+            }
+            Files.move(
+                temp,
+                path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies the hot segments from one cache to another in the background.
+     *
+     * @param source Cache to read segments from
+     * @param target Cache to put segments into
+     * @param byteBudget Maximum number of bytes, in the encoding of
+     *     {@link SegmentBodyCodec}, of the segments to copy
+     * @param segmentsPerSecond Maximum rate at which segments are copied;
+     *     {@link Double#POSITIVE_INFINITY} copies without pausing
+     * @return Progress of the warmup
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public Progress warm(
+        SegmentCache source,
+        SegmentCache target,
+        long byteBudget,
+        double segmentsPerSecond)
+    {
+        if (!(segmentsPerSecond > 0)) {
+            throw new IllegalArgumentException(
+                "segmentsPerSecond must be positive, was "
+                    + segmentsPerSecond);
+        }
+        final List<SegmentHeader> headers = getHotSegments();
+        final Progress progress = new Progress(headers.size());
+        final long pauseNanos =
+            (long) (TimeUnit.SECONDS.toNanos(1) / segmentsPerSecond);
+        final Thread thread = new Thread(
+            () -> {
+                try {
+                    copy(headers, source, target, byteBudget, pauseNanos,
+                        progress);
+                    progress.future.complete(progress);
+                } catch (RuntimeException | Error e) {
+                    LOG.warn("Segment warmup failed", e);
+                    progress.future.completeExceptionally(e);
+                }
+            },
+            "mondrian.segment.warmup-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        return progress;
+    }
+
+    private static void copy(
+        List<SegmentHeader> headers,
+        SegmentCache source,
+        SegmentCache target,
+        long byteBudget,
+        long pauseNanos,
+        Progress progress)
+    {
+        for (SegmentHeader header : headers) {
+            if (progress.cancelled.get()) {
+                return;
+            }
+            final SegmentBody body = source.get(header);
+            if (body == null) {
+                progress.skipped.incrementAndGet();
+                continue;
+            }
+            // Encoded once, both to measure it and for the target.
+            final ColumnarSegmentBody columnar = ColumnarSegmentBody.of(body);
+            final long size = columnar.getEncodedSize();
+            if (progress.bytes.get() + size > byteBudget) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
+                        "Segment warmup budget of " + byteBudget
+                            + " bytes spent after " + progress.getWarmed()
+                            + " segments");
+                }
+                return;
+            }
+            if (target.put(header, columnar)) {
+                progress.warmed.incrementAndGet();
+                progress.bytes.addAndGet(size);
+            } else {
+                progress.skipped.incrementAndGet();
+            }
+            if (pauseNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pauseNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        final long since = System.currentTimeMillis() - windowMillis;
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(path))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            final int count = in.readInt();
+            final ObjectInputStream objects = new ObjectInputStream(in);
+            for (int i = 0; i < count; i++) {
+                final long hits = objects.readLong();
+                final long lastHitMillis = objects.readLong();
+                final SegmentHeader header =
+                    (SegmentHeader) objects.readObject();
+                if (lastHitMillis >= since) {
+                    final Usage usage = new Usage();
+                    usage.hits.set(hits);
+                    usage.lastHitMillis.set(lastHitMillis);
+                    usages.put(header, usage);
+                }
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOG.warn("Ignoring unreadable segment warmup file " + path, e);
+            usages.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the number of segments whose usage is recorded.
+     */
+    long size() {
+        usages.cleanUp();
+        return usages.estimatedSize();
+    }
+
+    /**
+     * Hit count and time of the last hit of a segment.
+     */
+    private static class Usage {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong lastHitMillis = new AtomicLong();
+
+        void hit(long millis) {
+            hits.incrementAndGet();
+            lastHitMillis.accumulateAndGet(millis, Math::max);
+        }
+    }
+
+    /**
+     * Expires the usage of a segment one window after its last hit.
+     */
+    private static class UsageExpiry implements Expiry<SegmentHeader, Usage> {
+        private final long windowMillis;
+
+        UsageExpiry(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        private long remainingNanos(Usage usage) {
+            final long remainingMillis = usage.lastHitMillis.get()
+                + windowMillis - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterCreate(
+            SegmentHeader header,
+            Usage usage,
+            long currentTime)
+        {
+            return remainingNanos(usage);
+        }
+
+        @Override
+        public long expireAfterUpdate(
+            SegmentHeader header,
+            Usage usage,
+            long currentTime,
+            long currentDuration)
+        {
+            return remainingNanos(usage);
+        }
+
+        @Override
+        public long expireAfterRead(
+            SegmentHeader header,
+            Usage usage,
+            long currentTime,
+            long currentDuration)
+        {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Progress of a warmup.
+     */
+    public static final class Progress {
+        private final int total;
+        private final AtomicInteger warmed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final CompletableFuture<Progress> future =
+            new CompletableFuture<>();
+
+        private Progress(int total) {
+            this.total = total;
+        }
+
+        /**
+         * Returns the number of segments the warmup was started with.
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the number of segments copied so far.
+         */
+        public int getWarmed() {
+            return warmed.get();
+        }
+
+        /**
+         * Returns the number of segments that the source no longer held or
+         * that the target refused.
+         */
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        /**
+         * Returns the number of bytes of the segments copied so far.
+         */
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        /**
+         * Stops the warmup after the segment being copied.
+         */
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        /**
+         * Returns a future that completes when the warmup has finished, was
+         * cancelled or spent its budget.
+         */
+        public CompletableFuture<Progress> getFuture() {
+            return future;
+        }
+
+        @Override
+        public String toString() {
+            return "warmed " + warmed + " of " + total + " segments ("
+                + bytes + " bytes, " + skipped + " skipped)";
+        }
+    }
+
+    /**
+     * Cache that records a hit for every segment it returns.
+     */
+    private class RecordingSegmentCache implements SegmentCache {
+        private final SegmentCache delegate;
+
+        RecordingSegmentCache(SegmentCache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SegmentBody get(SegmentHeader header) {
+            final SegmentBody body = delegate.get(header);
+            if (body != null) {
+                recordHit(header);
+            }
+            return body;
+        }
+
+        @Override
+        public boolean put(SegmentHeader header, SegmentBody body) {
+            return delegate.put(header, body);
+        }
+
+        @Override
+        public List<SegmentHeader> getSegmentHeaders() {
+            return delegate.getSegmentHeaders();
+        }
+
+        @Override
+        public boolean remove(SegmentHeader header) {
+            return delegate.remove(header);
+        }
+
+        @Override
+        public void tearDown() {
+            delegate.tearDown();
+        }
+
+        @Override
+        public void addListener(SegmentCacheListener listener) {
+            delegate.addListener(listener);
+        }
+
+        @Override
+        public void removeListener(SegmentCacheListener listener) {
+            delegate.removeListener(listener);
+        }
+
+        @Override
+        public boolean supportsRichIndex() {
+            return delegate.supportsRichIndex();
+        }
+    }
+}
@@ -9,10 +9,14 @@
 
 package mondrian.spi.impl;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.daanse.jdbc.db.dialect.api.Dialect;
 import org.eclipse.daanse.olap.api.Context;
@@ -21,14 +25,57 @@ import org.eclipse.daanse.olap.api.execution.ExecutionMetadata;
 import org.eclipse.daanse.olap.execution.ExecutionImpl;
 import org.eclipse.daanse.rolap.common.RolapUtil;
 import org.eclipse.daanse.rolap.common.SqlStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import mondrian.spi.AsyncStatisticsProvider;
+import mondrian.spi.BatchStatisticsProvider;
 
 /**
  * Implementation of {@link mondrian.spi.StatisticsProvider} that generates
  * SQL queries to count rows and distinct values.
+ *
+ * <p>If {@link #ESTIMATION_ERROR_BOUND} is positive, column cardinalities
+ * are estimated instead of counted exactly. The database's approximate
+ * distinct-count function is used where it has one; otherwise the column is
+ * streamed into a {@link HyperLogLog} sketch sized for the error bound. Only
+ * a random sample of {@link #SAMPLE_PERCENT} percent of the table is
+ * streamed, taken with {@code TABLESAMPLE} or the database's equivalent. A
+ * database that cannot sample randomly gets the exact count, as it does if
+ * estimation fails; its leading rows are no random sample, and streaming
+ * all rows costs more than the count.
+ *
+ * <p>{@link #getColumnCardinalities} reads all requested columns of a table
+ * in one statement, with several {@code count(distinct)} or with
+ * {@code GROUPING SETS}, depending on what the database allows.
+ *
+ * <p>The asynchronous methods run the same statements on the per-context
+ * pool of {@link StatisticsExecutors}, so that at most
+ * {@link StatisticsExecutors#MAX_CONCURRENT_QUERIES} connections are used
+ * for statistics at a time.
  */
-public class SqlStatisticsProvider implements StatisticsProvider {
+public class SqlStatisticsProvider
+    implements BatchStatisticsProvider, AsyncStatisticsProvider
+{
+    private static final Logger LOG =
+        LoggerFactory.getLogger(SqlStatisticsProvider.class);
+
+    /**
+     * Context configuration key for the relative error allowed when
+     * estimating column cardinalities. Zero (the default) means exact
+     * {@code count(distinct)}.
+     */
+    public static final String ESTIMATION_ERROR_BOUND =
+        "statisticsEstimationErrorBound";
+    public static final Double ESTIMATION_ERROR_BOUND_DEFAULT_VALUE = 0.0;
+
+    /**
+     * Context configuration key for the percentage of a table that is
+     * sampled when estimating a column cardinality on a database without an
+     * approximate distinct-count function.
+     */
+    public static final String SAMPLE_PERCENT = "statisticsSamplePercent";
+    public static final Double SAMPLE_PERCENT_DEFAULT_VALUE = 10.0;
 
     @Override
 	public long getTableCardinality(
@@ -119,6 +166,25 @@ public class SqlStatisticsProvider implements StatisticsProvider {
         String column,
         ExecutionImpl execution)
     {
+        final double errorBound = errorBound(context);
+        if (errorBound > 0) {
+            try {
+                final long[] estimates = estimateColumnCardinalities(
+                    context, catalog, schema, table, List.of(column),
+                    errorBound, execution);
+                if (estimates != null) {
+                    return estimates[0];
+                }
+            } catch (RuntimeException e) {
+                // Fall back to an exact count.
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
+                        "SqlStatisticsProvider failed to estimate the cardinality of column "
+                            + Arrays.asList(catalog, schema, table, column),
+                        e);
+                }
+            }
+        }
         final String sql =
             generateColumnCardinalitySql(
                 context.getDialect(), schema, table, column);
@@ -150,6 +216,428 @@ public class SqlStatisticsProvider implements StatisticsProvider {
         }
     }
 
+    @Override
+    public long[] getColumnCardinalities(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        ExecutionImpl execution)
+    {
+        if (columns.size() <= 1) {
+            return BatchStatisticsProvider.super.getColumnCardinalities(
+                context, catalog, schema, table, columns, execution);
+        }
+        final double errorBound = errorBound(context);
+        if (errorBound > 0) {
+            try {
+                final long[] estimates = estimateColumnCardinalities(
+                    context, catalog, schema, table, columns, errorBound,
+                    execution);
+                if (estimates != null) {
+                    return estimates;
+                }
+            } catch (RuntimeException e) {
+                // Fall back to an exact count.
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
+                        "SqlStatisticsProvider failed to estimate the cardinality of columns "
+                            + columns + " of table "
+                            + Arrays.asList(catalog, schema, table),
+                        e);
+                }
+            }
+        }
+        final String sql =
+            generateColumnCardinalitiesSql(
+                context.getDialect(), schema, table, columns);
+        if (sql == null) {
+            // One statement per column.
+            return BatchStatisticsProvider.super.getColumnCardinalities(
+                context, catalog, schema, table, columns, execution);
+        }
+        ExecutionMetadata metadata = ExecutionMetadata.of(
+            "SqlStatisticsProvider.getColumnCardinalities",
+            "Reading cardinality for columns " + columns + " of table " + Arrays.asList(catalog, schema, table),
+            null,
+            0
+        );
+        SqlStatement stmt =
+            RolapUtil.executeQuery(
+                context,
+                sql,
+                execution.asContext().createChild(metadata, Optional.empty()));
+        final long[] cardinalities = new long[columns.size()];
+        Arrays.fill(cardinalities, -1);
+        try {
+            ResultSet resultSet = stmt.getResultSet();
+            if (resultSet.next()) {
+                ++stmt.rowCount;
+                for (int i = 0; i < cardinalities.length; i++) {
+                    cardinalities[i] = resultSet.getLong(i + 1);
+                }
+            }
+            return cardinalities;
+        } catch (SQLException e) {
+            throw stmt.handle(e);
+        } finally {
+            stmt.close();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> getTableCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        ExecutionImpl execution)
+    {
+        return CompletableFuture.supplyAsync(
+            () -> getTableCardinality(
+                context, catalog, schema, table, execution),
+            StatisticsExecutors.of(context));
+    }
+
+    @Override
+    public CompletableFuture<Long> getQueryCardinalityAsync(
+        Context context,
+        String sql,
+        ExecutionImpl execution)
+    {
+        return CompletableFuture.supplyAsync(
+            () -> getQueryCardinality(context, sql, execution),
+            StatisticsExecutors.of(context));
+    }
+
+    @Override
+    public CompletableFuture<Long> getColumnCardinalityAsync(
+        Context context,
+        String catalog,
+        String schema,
+        String table,
+        String column,
+        ExecutionImpl execution)
+    {
+        return CompletableFuture.supplyAsync(
+            () -> getColumnCardinality(
+                context, catalog, schema, table, column, execution),
+            StatisticsExecutors.of(context));
+    }
+
+    /**
+     * Returns the relative error the context accepts in estimated column
+     * cardinalities; 0 asks for exact counts.
+     */
+    private static double errorBound(Context<?> context) {
+        return context.getConfigValue(
+            ESTIMATION_ERROR_BOUND,
+            ESTIMATION_ERROR_BOUND_DEFAULT_VALUE,
+            Double.class);
+    }
+
+    /**
+     * Estimates the distinct count of each of the given columns, or returns
+     * null if the database can neither estimate nor sample, and the columns
+     * are better counted exactly than streamed in full.
+     */
+    private long[] estimateColumnCardinalities(
+        Context<?> context,
+        String catalog,
+        String schema,
+        String table,
+        List<String> columns,
+        double errorBound,
+        ExecutionImpl execution)
+    {
+        final Dialect dialect = context.getDialect();
+        final long[] cardinalities = new long[columns.size()];
+        Arrays.fill(cardinalities, -1);
+        final String approximateSql =
+            generateApproximateColumnCardinalitySql(
+                dialect, schema, table, columns);
+        if (approximateSql != null) {
+            ExecutionMetadata metadata = ExecutionMetadata.of(
+                "SqlStatisticsProvider.estimateColumnCardinalities",
+                "Estimating cardinality for columns " + columns + " of table " + Arrays.asList(catalog, schema, table),
+                null,
+                0
+            );
+            SqlStatement stmt =
+                RolapUtil.executeQuery(
+                    context,
+                    approximateSql,
+                    execution.asContext().createChild(metadata, Optional.empty()));
+            try {
+                ResultSet resultSet = stmt.getResultSet();
+                if (resultSet.next()) {
+                    ++stmt.rowCount;
+                    for (int i = 0; i < cardinalities.length; i++) {
+                        cardinalities[i] = resultSet.getLong(i + 1);
+                    }
+                }
+                return cardinalities;
+            } catch (SQLException e) {
+                throw stmt.handle(e);
+            } finally {
+                stmt.close();
+            }
+        }
+
+        // No approximate function: stream the (sampled) columns through
+        // sketches, which spares the database the sort or hash of a distinct.
+        final Double samplePercent = context.getConfigValue(
+            SAMPLE_PERCENT, SAMPLE_PERCENT_DEFAULT_VALUE, Double.class);
+        final String sql = generateSampleSql(
+            dialect, schema, table, columns, samplePercent);
+        if (sql == null) {
+            return null;
+        }
+        ExecutionMetadata metadata = ExecutionMetadata.of(
+            "SqlStatisticsProvider.estimateColumnCardinalities",
+            "Sampling values of columns " + columns + " of table " + Arrays.asList(catalog, schema, table),
+            null,
+            0
+        );
+        SqlStatement stmt =
+            RolapUtil.executeQuery(
+                context,
+                sql,
+                execution.asContext().createChild(metadata, Optional.empty()));
+        final HyperLogLog[] sketches = new HyperLogLog[columns.size()];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = HyperLogLog.forRelativeError(errorBound);
+        }
+        long rows = 0;
+        try {
+            ResultSet resultSet = stmt.getResultSet();
+            while (resultSet.next()) {
+                ++stmt.rowCount;
+                ++rows;
+                for (int i = 0; i < sketches.length; i++) {
+                    sketches[i].add(resultSet.getObject(i + 1));
+                }
+            }
+        } catch (SQLException e) {
+            throw stmt.handle(e);
+        } finally {
+            stmt.close();
+        }
+        for (int i = 0; i < sketches.length; i++) {
+            final long distinct = Math.min(sketches[i].estimate(), rows);
+            cardinalities[i] = samplePercent >= 100 || rows == 0
+                ? distinct
+                : scaleSampledCardinality(distinct, rows, samplePercent);
+        }
+        return cardinalities;
+    }
+
+    /**
+     * Generates a query that reads the given columns of a random sample of
+     * {@code samplePercent} percent of a table, or of the whole table if
+     * {@code samplePercent} is 100 or more. Returns null if the database
+     * cannot sample tables.
+     */
+    static String generateSampleSql(
+        Dialect dialect,
+        String schema,
+        String table,
+        List<String> columns,
+        double samplePercent)
+    {
+        String suffix = "";
+        if (samplePercent < 100) {
+            suffix = tableSampleClause(dialect, samplePercent);
+            if (suffix == null) {
+                return null;
+            }
+        }
+        final StringBuilder buf = new StringBuilder("select ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(dialect.quoteIdentifier(columns.get(i)));
+        }
+        buf.append(" from ");
+        dialect.quoteIdentifier(buf, schema, table);
+        return buf.append(suffix).toString();
+    }
+
+    /**
+     * Extrapolates the number of distinct values in a table from the number
+     * found in a sample. A column whose sampled values are nearly all
+     * distinct is scaled up like the row count; a column whose sample
+     * repeats the same few values keeps the sampled count. The
+     * interpolation between the two is quadratic in the sample's
+     * distinct-to-row ratio.
+     */
+    static long scaleSampledCardinality(
+        long sampleDistinct,
+        long sampleRows,
+        double samplePercent)
+    {
+        final double tableRows = sampleRows * 100.0 / samplePercent;
+        final double ratio = (double) sampleDistinct / sampleRows;
+        final double estimate =
+            sampleDistinct + (tableRows - sampleRows) * ratio * ratio;
+        return Math.round(Math.min(estimate, tableRows));
+    }
+
+    /**
+     * Generates a query that returns an approximate distinct count of each
+     * of the given columns, or null if the database has no approximate
+     * distinct-count function.
+     */
+    static String generateApproximateColumnCardinalitySql(
+        Dialect dialect,
+        String schema,
+        String table,
+        List<String> columns)
+    {
+        final String function;
+        switch (dialect.name().toUpperCase(Locale.ROOT)) {
+        case "ORACLE":
+        case "MSSQL":
+        case "GOOGLEBIGQUERY":
+        case "SNOWFLAKE":
+            function = "APPROX_COUNT_DISTINCT(";
+            break;
+        case "REDSHIFT":
+            function = "APPROXIMATE COUNT(DISTINCT ";
+            break;
+        case "VERTICA":
+            function = "APPROXIMATE_COUNT_DISTINCT(";
+            break;
+        case "IMPALA":
+            function = "NDV(";
+            break;
+        default:
+            return null;
+        }
+        final StringBuilder buf = new StringBuilder("select ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(function)
+                .append(dialect.quoteIdentifier(columns.get(i)))
+                .append(")");
+        }
+        buf.append(" from ");
+        dialect.quoteIdentifier(buf, schema, table);
+        return buf.toString();
+    }
+
+    /**
+     * Returns the clause that follows a table name to sample the given
+     * percentage of it, or null if the database cannot sample tables.
+     */
+    static String tableSampleClause(Dialect dialect, double percent) {
+        final String p = BigDecimal.valueOf(percent).toPlainString();
+        switch (dialect.name().toUpperCase(Locale.ROOT)) {
+        case "POSTGRES":
+        case "GREENPLUM":
+        case "DB2":
+            return " TABLESAMPLE SYSTEM (" + p + ")";
+        case "ORACLE":
+            return " SAMPLE (" + p + ")";
+        case "MSSQL":
+        case "HIVE":
+            return " TABLESAMPLE (" + p + " PERCENT)";
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Generates a query that returns the distinct count of each of the
+     * given columns in one row, reading the table once. Returns null if the
+     * database can do this neither with several {@code count(distinct)} in
+     * one select nor with {@code GROUPING SETS}.
+     */
+    static String generateColumnCardinalitiesSql(
+        Dialect dialect,
+        String schema,
+        String table,
+        List<String> columns)
+    {
+        final StringBuilder buf = new StringBuilder("select ");
+        if (dialect.allowsCountDistinct()
+            && dialect.allowsMultipleCountDistinct())
+        {
+            // e.g. "select count(distinct gender), count(distinct city)
+            // from customer"
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append("count(distinct ")
+                    .append(dialect.quoteIdentifier(columns.get(i)))
+                    .append(")");
+            }
+            buf.append(" from ");
+            dialect.quoteIdentifier(buf, schema, table);
+            return buf.toString();
+        } else if (dialect.supportsGroupingSets()
+            && dialect.allowsFromQuery())
+        {
+            // Each grouping set (c) yields one row per distinct value of c,
+            // flagged by grouping(c) = 0, e.g. "select count(case when g0 = 0
+            // and gender is not null then 1 end), ... from (select gender,
+            // city, grouping(gender) as g0, grouping(city) as g1 from
+            // customer group by grouping sets ((gender), (city))) init"
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append("count(case when ")
+                    .append(dialect.quoteIdentifier("g" + i))
+                    .append(" = 0 and ")
+                    .append(dialect.quoteIdentifier(columns.get(i)))
+                    .append(" is not null then 1 end)");
+            }
+            buf.append(" from (select ");
+            for (int i = 0; i < columns.size(); i++) {
+                buf.append(dialect.quoteIdentifier(columns.get(i)))
+                    .append(", ");
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append("grouping(")
+                    .append(dialect.quoteIdentifier(columns.get(i)))
+                    .append(") as ")
+                    .append(dialect.quoteIdentifier("g" + i));
+            }
+            buf.append(" from ");
+            dialect.quoteIdentifier(buf, schema, table);
+            buf.append(" group by grouping sets (");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append("(")
+                    .append(dialect.quoteIdentifier(columns.get(i)))
+                    .append(")");
+            }
+            buf.append("))");
+            if (dialect.requiresAliasForFromQuery()) {
+                if (dialect.allowsFromAlias()) {
+                    buf.append(" as ");
+                } else {
+                    buf.append(' ');
+                }
+                dialect.quoteIdentifier(buf, "init");
+            }
+            return buf.toString();
+        } else {
+            return null;
+        }
+    }
+
     private static String generateColumnCardinalitySql(
         Dialect dialect,
         String schema,
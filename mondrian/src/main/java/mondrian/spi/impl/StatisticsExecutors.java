@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import mondrian.spi.AsyncStatisticsProvider;
+
+/**
+ * Per-context thread pools on which statistics providers run their
+ * asynchronous probes.
+ *
+ * <p>All providers of a context share one pool of at most
+ * {@link #MAX_CONCURRENT_QUERIES} threads, so that at most that many
+ * connections are used for statistics at a time, however the providers are
+ * chained or wrapped. {@link #ask} runs a provider that is not asynchronous
+ * itself on that pool.
+ */
+public final class StatisticsExecutors {
+
+    /**
+     * Context configuration key for the maximum number of statistics
+     * queries that run concurrently, and so the number of connections they
+     * take from the data source.
+     */
+    public static final String MAX_CONCURRENT_QUERIES =
+        "statisticsMaxConcurrentQueries";
+    public static final Integer MAX_CONCURRENT_QUERIES_DEFAULT_VALUE = 4;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final Cache<Context<?>, ExecutorService> EXECUTORS =
+        Caffeine.newBuilder().weakKeys().build();
+
+    private StatisticsExecutors() {
+    }
+
+    /**
+     * Returns the pool that runs the asynchronous statistics probes of a
+     * context.
+     */
+    public static ExecutorService of(Context<?> context) {
+        return EXECUTORS.get(context, StatisticsExecutors::create);
+    }
+
+    /**
+     * Asks a provider asynchronously: through its own asynchronous methods
+     * if it has them, otherwise by running its synchronous method on the
+     * pool of the context.
+     */
+    public static CompletableFuture<Long> ask(
+        StatisticsProvider provider,
+        Context<?> context,
+        Function<AsyncStatisticsProvider, CompletableFuture<Long>> asyncRequest,
+        ToLongFunction<StatisticsProvider> request)
+    {
+        if (provider instanceof AsyncStatisticsProvider asyncProvider) {
+            return asyncRequest.apply(asyncProvider);
+        }
+        return CompletableFuture.supplyAsync(
+            () -> request.applyAsLong(provider),
+            of(context));
+    }
+
+    /**
+     * Creates the pool of a context. Idle threads end after a minute, so a
+     * context that is no longer used does not keep any.
+     */
+    private static ExecutorService create(Context<?> context) {
+        final int threads = Math.max(
+            1,
+            context.getConfigValue(
+                MAX_CONCURRENT_QUERIES,
+                MAX_CONCURRENT_QUERIES_DEFAULT_VALUE,
+                Integer.class));
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(
+                    r,
+                    "mondrian.statistics-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
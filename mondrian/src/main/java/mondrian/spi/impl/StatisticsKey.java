@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+/**
+ * Identifies one cardinality known to a statistics provider. Table
+ * cardinalities have a null column; query cardinalities only have the SQL
+ * string.
+ */
+record StatisticsKey(
+    String catalog,
+    String schema,
+    String table,
+    String column,
+    String sql)
+{
+    static StatisticsKey ofTable(String catalog, String schema, String table) {
+        return new StatisticsKey(catalog, schema, table, null, null);
+    }
+
+    static StatisticsKey ofColumn(
+        String catalog,
+        String schema,
+        String table,
+        String column)
+    {
+        return new StatisticsKey(catalog, schema, table, column, null);
+    }
+
+    static StatisticsKey ofQuery(String sql) {
+        return new StatisticsKey(null, null, null, null, sql);
+    }
+}
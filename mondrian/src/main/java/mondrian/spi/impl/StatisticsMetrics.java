@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.daanse.olap.api.Context;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Aggregate measurements of the statistics providers of one {@link Context},
+ * collected by {@link InstrumentedStatisticsProvider}.
+ *
+ * <p>For each provider it counts calls, columns probed, unknown answers (-1,
+ * after which the chain falls back to the next provider) and failures, keeps
+ * a latency histogram and estimates the rows scanned. A batch of columns is
+ * one call and one latency sample, however many columns it holds. For each table it keeps
+ * the total probe time, so that {@link #report()} can list the tables that
+ * would benefit most from precomputed statistics.
+ */
+public final class StatisticsMetrics {
+    /**
+     * Upper bounds, in milliseconds, of the latency histogram buckets. The
+     * last bucket holds everything slower.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS =
+        {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final int SLOWEST_TABLE_COUNT = 10;
+
+    private static final Cache<Context, StatisticsMetrics> METRICS =
+        Caffeine.newBuilder().weakKeys().build();
+
+    private final Map<String, ProviderMetrics> providers =
+        new ConcurrentHashMap<>();
+    private final Map<String, TableMetrics> tables = new ConcurrentHashMap<>();
+    private final Map<String, Long> rowCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics of a context, creating them on first use.
+     */
+    public static StatisticsMetrics of(Context context) {
+        return METRICS.get(context, c -> new StatisticsMetrics());
+    }
+
+    /**
+     * Records one probe.
+     *
+     * @param provider Name of the provider
+     * @param scanning Whether the provider scans the table to answer
+     * @param table Qualified table name, or null for a query
+     * @param isTable Whether the table's row count was probed
+     * @param cardinality Answer, -1 if unknown
+     * @param nanos Elapsed time
+     */
+    void record(
+        String provider,
+        boolean scanning,
+        String table,
+        boolean isTable,
+        long cardinality,
+        long nanos)
+    {
+        final ProviderMetrics metrics = provider(provider);
+        metrics.calls.increment();
+        metrics.nanos.add(nanos);
+        metrics.histogram.incrementAndGet(bucket(nanos));
+        if (!isTable && table != null) {
+            metrics.columns.increment();
+        }
+        if (cardinality < 0) {
+            metrics.unknown.increment();
+        } else if (isTable && table != null) {
+            rowCounts.put(table, cardinality);
+        }
+        if (scanning && cardinality >= 0 && table != null) {
+            final Long rows = isTable ? cardinality : rowCounts.get(table);
+            if (rows != null) {
+                metrics.rowsScanned.add(rows);
+            }
+        }
+        if (table != null) {
+            final TableMetrics tableMetrics =
+                tables.computeIfAbsent(table, t -> new TableMetrics());
+            tableMetrics.calls.increment();
+            tableMetrics.nanos.add(nanos);
+        }
+    }
+
+    /**
+     * Records a probe of several columns of a table. It counts as one call,
+     * and as one fallback if any column is unknown, since the chain then asks
+     * the next provider for those columns; a scanning provider read the table
+     * once for all of them.
+     *
+     * @param provider Name of the provider
+     * @param scanning Whether the provider scans the table to answer
+     * @param table Qualified table name
+     * @param cardinalities Answer for each column, -1 if unknown
+     * @param nanos Elapsed time of the whole batch
+     */
+    void recordBatch(
+        String provider,
+        boolean scanning,
+        String table,
+        long[] cardinalities,
+        long nanos)
+    {
+        final ProviderMetrics metrics = provider(provider);
+        metrics.calls.increment();
+        metrics.columns.add(cardinalities.length);
+        metrics.nanos.add(nanos);
+        metrics.histogram.incrementAndGet(bucket(nanos));
+        boolean known = false;
+        boolean unknown = false;
+        for (long cardinality : cardinalities) {
+            known |= cardinality >= 0;
+            unknown |= cardinality < 0;
+        }
+        if (unknown) {
+            metrics.unknown.increment();
+        }
+        if (scanning && known && table != null) {
+            final Long rows = rowCounts.get(table);
+            if (rows != null) {
+                metrics.rowsScanned.add(rows);
+            }
+        }
+        if (table != null) {
+            final TableMetrics tableMetrics =
+                tables.computeIfAbsent(table, t -> new TableMetrics());
+            tableMetrics.calls.increment();
+            tableMetrics.nanos.add(nanos);
+        }
+    }
+
+    /**
+     * Records a probe that threw an exception.
+     */
+    void recordFailure(String provider, String table, long nanos) {
+        final ProviderMetrics metrics = provider(provider);
+        metrics.calls.increment();
+        metrics.failures.increment();
+        metrics.nanos.add(nanos);
+        metrics.histogram.incrementAndGet(bucket(nanos));
+        if (table != null) {
+            final TableMetrics tableMetrics =
+                tables.computeIfAbsent(table, t -> new TableMetrics());
+            tableMetrics.calls.increment();
+            tableMetrics.nanos.add(nanos);
+        }
+    }
+
+    private ProviderMetrics provider(String name) {
+        return providers.computeIfAbsent(name, n -> new ProviderMetrics());
+    }
+
+    static int bucket(long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (millis < BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    /**
+     * Returns the number of probes of a provider, including failed ones.
+     */
+    public long getCallCount(String provider) {
+        final ProviderMetrics metrics = providers.get(provider);
+        return metrics == null ? 0 : metrics.calls.sum();
+    }
+
+    /**
+     * Returns the number of columns a provider was asked for, in single and
+     * batch probes.
+     */
+    public long getColumnCount(String provider) {
+        final ProviderMetrics metrics = providers.get(provider);
+        return metrics == null ? 0 : metrics.columns.sum();
+    }
+
+    /**
+     * Returns the number of probes a provider answered with -1, so that the
+     * next provider in the chain was asked.
+     */
+    public long getFallbackCount(String provider) {
+        final ProviderMetrics metrics = providers.get(provider);
+        return metrics == null ? 0 : metrics.unknown.sum();
+    }
+
+    /**
+     * Returns the number of probes of a provider that threw.
+     */
+    public long getFailureCount(String provider) {
+        final ProviderMetrics metrics = providers.get(provider);
+        return metrics == null ? 0 : metrics.failures.sum();
+    }
+
+    /**
+     * Returns the estimated number of rows a provider scanned.
+     */
+    public long getRowsScanned(String provider) {
+        final ProviderMetrics metrics = providers.get(provider);
+        return metrics == null ? 0 : metrics.rowsScanned.sum();
+    }
+
+    /**
+     * Returns the latency histogram of a provider: the number of probes per
+     * bucket of {@link #BUCKET_BOUNDS_MILLIS}, plus one bucket for slower
+     * probes.
+     */
+    public long[] getLatencyHistogram(String provider) {
+        final long[] histogram = new long[BUCKET_BOUNDS_MILLIS.length + 1];
+        final ProviderMetrics metrics = providers.get(provider);
+        if (metrics != null) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = metrics.histogram.get(i);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the tables with the largest total probe time, slowest first.
+     */
+    public List<String> getSlowestTables(int count) {
+        final List<Map.Entry<String, TableMetrics>> entries =
+            new ArrayList<>(tables.entrySet());
+        entries.sort(
+            Comparator.comparingLong(
+                (Map.Entry<String, TableMetrics> e) -> e.getValue().nanos.sum())
+                .reversed());
+        final List<String> slowest = new ArrayList<>();
+        for (Map.Entry<String, TableMetrics> e : entries) {
+            if (slowest.size() == count) {
+                break;
+            }
+            slowest.add(e.getKey());
+        }
+        return slowest;
+    }
+
+    /**
+     * Discards all measurements.
+     */
+    public void reset() {
+        providers.clear();
+        tables.clear();
+        rowCounts.clear();
+    }
+
+    /**
+     * Returns a human-readable summary of the measurements.
+     */
+    public String report() {
+        final StringBuilder buf = new StringBuilder("Statistics providers:\n");
+        for (Map.Entry<String, ProviderMetrics> e : providers.entrySet()) {
+            final ProviderMetrics metrics = e.getValue();
+            buf.append("  ").append(e.getKey())
+                .append(": calls=").append(metrics.calls.sum())
+                .append(", columns=").append(metrics.columns.sum())
+                .append(", fallbacks=").append(metrics.unknown.sum())
+                .append(", failures=").append(metrics.failures.sum())
+                .append(", rowsScanned=").append(metrics.rowsScanned.sum())
+                .append(", totalMillis=")
+                .append(TimeUnit.NANOSECONDS.toMillis(metrics.nanos.sum()))
+                .append(", latencyMillis=")
+                .append(histogramString(getLatencyHistogram(e.getKey())))
+                .append('\n');
+        }
+        buf.append("Slowest tables:\n");
+        for (String table : getSlowestTables(SLOWEST_TABLE_COUNT)) {
+            final TableMetrics metrics = tables.get(table);
+            buf.append("  ").append(table)
+                .append(": calls=").append(metrics.calls.sum())
+                .append(", totalMillis=")
+                .append(TimeUnit.NANOSECONDS.toMillis(metrics.nanos.sum()))
+                .append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static String histogramString(long[] histogram) {
+        final List<String> parts = new ArrayList<>();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == 0) {
+                continue;
+            }
+            parts.add(
+                (i < BUCKET_BOUNDS_MILLIS.length
+                    ? "<" + BUCKET_BOUNDS_MILLIS[i]
+                    : ">=" + BUCKET_BOUNDS_MILLIS[i - 1])
+                    + ":" + histogram[i]);
+        }
+        return Arrays.toString(parts.toArray());
+    }
+
+    private static final class ProviderMetrics {
+        final LongAdder calls = new LongAdder();
+        final LongAdder columns = new LongAdder();
+        final LongAdder unknown = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder rowsScanned = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLongArray histogram =
+            new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    }
+
+    private static final class TableMetrics {
+        final LongAdder calls = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+}
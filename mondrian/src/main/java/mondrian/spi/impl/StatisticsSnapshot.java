@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Table and column cardinalities of one data source and schema, backed by a
+ * local file.
+ *
+ * <p>The file starts with a magic number and a format version, followed by
+ * the entries. Each entry holds catalog, schema, table and column names
+ * (length-prefixed UTF-8, length -1 for null), the cardinality, the time
+ * it was observed and, since version 2, the encoded {@link HighWaterMark}
+ * of a table (a string in the same format). The file is read through a
+ * memory mapping and written to a temporary file that atomically replaces
+ * the previous snapshot, so a reader never sees a half-written file.
+ *
+ * <p>A file with a different magic number or an unknown version is ignored;
+ * the snapshot then starts empty and is rewritten in the current format.
+ * Version 1 files are read without high-water marks.
+ */
+final class StatisticsSnapshot {
+    private static final Logger LOG =
+        LoggerFactory.getLogger(StatisticsSnapshot.class);
+
+    static final int MAGIC = 0x4D535354; // "MSST"
+    static final int FORMAT_VERSION = 2;
+
+    private final Path path;
+    private final Map<StatisticsKey, Entry> entries;
+    private final Set<StatisticsKey> refreshing =
+        ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    private StatisticsSnapshot(Path path, Map<StatisticsKey, Entry> entries) {
+        this.path = path;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the snapshot stored at the given path. Returns an empty snapshot
+     * if the file does not exist or cannot be read.
+     */
+    static StatisticsSnapshot load(Path path) {
+        final Map<StatisticsKey, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(path)) {
+            try (FileChannel channel =
+                     FileChannel.open(path, StandardOpenOption.READ))
+            {
+                final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                read(buffer, entries);
+            } catch (IOException | BufferUnderflowException
+                     | IllegalArgumentException e)
+            {
+                LOG.warn(
+                    "Ignoring unreadable statistics snapshot " + path, e);
+                entries.clear();
+            }
+        }
+        return new StatisticsSnapshot(path, entries);
+    }
+
+    private static void read(
+        ByteBuffer buffer,
+        Map<StatisticsKey, Entry> entries)
+    {
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            return;
+        }
+        final int version = buffer.getInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            return;
+        }
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            final StatisticsKey key = StatisticsKey.ofColumn(
+                readString(buffer),
+                readString(buffer),
+                readString(buffer),
+                readString(buffer));
+            final long cardinality = buffer.getLong();
+            final long observedMillis = buffer.getLong();
+            final String highWaterMark =
+                version >= 2 ? readString(buffer) : null;
+            entries.put(
+                key, new Entry(cardinality, observedMillis, highWaterMark));
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            // Corrupt length; do not allocate it.
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    Entry get(StatisticsKey key) {
+        return entries.get(key);
+    }
+
+    void put(StatisticsKey key, long cardinality, long observedMillis) {
+        put(key, new Entry(cardinality, observedMillis, null));
+    }
+
+    void put(StatisticsKey key, Entry entry) {
+        entries.put(key, entry);
+        dirty.set(true);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Marks the key as being refreshed. Returns false if a refresh of the
+     * key is already running.
+     */
+    boolean beginRefresh(StatisticsKey key) {
+        return refreshing.add(key);
+    }
+
+    void endRefresh(StatisticsKey key) {
+        refreshing.remove(key);
+    }
+
+    /**
+     * Returns true if the caller should schedule a save; false if one is
+     * already pending.
+     */
+    boolean beginScheduleSave() {
+        return saveScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Writes the snapshot if it changed since it was last written.
+     */
+    void save() throws IOException {
+        saveScheduled.set(false);
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        Files.createDirectories(path.getParent());
+        final Path temp = Files.createTempFile(
+            path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                final Map<StatisticsKey, Entry> copy = Map.copyOf(entries);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<StatisticsKey, Entry> e : copy.entrySet()) {
+                    writeString(out, e.getKey().catalog());
+                    writeString(out, e.getKey().schema());
+                    writeString(out, e.getKey().table());
+                    writeString(out, e.getKey().column());
+                    out.writeLong(e.getValue().cardinality());
+                    out.writeLong(e.getValue().observedMillis());
+                    writeString(out, e.getValue().highWaterMark());
+                }
+            }
+            Files.move(
+                temp,
+                path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+        throws IOException
+    {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * A cardinality, the time, in milliseconds since the epoch, at which it
+     * was observed, and the encoded {@link HighWaterMark} at that time, or
+     * null.
+     */
+    record Entry(long cardinality, long observedMillis, String highWaterMark) {
+        Entry(long cardinality, long observedMillis) {
+            this(cardinality, observedMillis, null);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.junit.jupiter.api.Test;
+
+import mondrian.spi.impl.HyperLogLog;
+
+/**
+ * Test for {@link ApproximateDistinctCount}.
+ */
+class ApproximateDistinctCountTest {
+
+    @Test
+    void testOptInPerMeasure() {
+        final Context context = mock(Context.class);
+        when(context.getConfigValue(anyString(), any(), any()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        when(context.getConfigValue(
+            eq(ApproximateDistinctCount.MEASURES), any(), any()))
+            .thenReturn(
+                "Sales.Customer Count, Warehouse.Product Count=0.01");
+
+        assertEquals(
+            ApproximateDistinctCount.ERROR_BOUND_DEFAULT_VALUE,
+            ApproximateDistinctCount.errorBound(
+                context, "Sales", "Customer Count"));
+        assertEquals(
+            0.01,
+            ApproximateDistinctCount.errorBound(
+                context, "Warehouse", "Product Count"));
+        assertNull(ApproximateDistinctCount.errorBound(
+            context, "Sales", "Product Count"));
+    }
+
+    @Test
+    void testRollupMergesFinerCells() {
+        // Customers per (state, city); 1000 customers per state, each
+        // visiting two cities.
+        final Map<List<String>, HyperLogLog> cities = new HashMap<>();
+        for (String state : List.of("CA", "OR")) {
+            for (int customer = 0; customer < 1000; customer++) {
+                for (int visit = 0; visit < 2; visit++) {
+                    final List<String> city =
+                        List.of(state, "city" + (customer + visit) % 10);
+                    cities.computeIfAbsent(
+                        city, k -> ApproximateDistinctCount.newSketch(0.02))
+                        .add(state + customer);
+                }
+            }
+        }
+        final Map<List<String>, HyperLogLog> copies = new HashMap<>();
+        cities.forEach((city, sketch) -> copies.put(city, sketch.copy()));
+
+        final Map<String, HyperLogLog> states =
+            ApproximateDistinctCount.rollup(cities, city -> city.get(0));
+        assertEquals(2, states.size());
+        for (HyperLogLog sketch : states.values()) {
+            final long estimate = (Long) ApproximateDistinctCount.cellValue(
+                sketch);
+            assertTrue(
+                Math.abs(estimate - 1000) < 60, "estimate " + estimate);
+        }
+        final long all = ApproximateDistinctCount.rollup(states, s -> "All")
+            .get("All").estimate();
+        assertTrue(Math.abs(all - 2000) < 120, "estimate " + all);
+
+        // The finer sketches are left as they were.
+        assertEquals(copies, cities);
+        assertEquals(5, ApproximateDistinctCount.cellValue(5));
+    }
+}
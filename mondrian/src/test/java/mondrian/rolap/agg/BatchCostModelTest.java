@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link BatchCostModel}.
+ */
+class BatchCostModelTest {
+
+    @Test
+    void testMergesUntilObservedSlower() {
+        final BatchCostModel model = new BatchCostModel(1_000_000L);
+        assertTrue(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+
+        // A plain scan takes 101ms, a GROUPING SETS of two 1001ms.
+        model.recordQuery("sales_fact_1997", 1, 1_000_000, 101_000_000L);
+        model.recordQuery("sales_fact_1997", 2, 1_000_000, 1_001_000_000L);
+        assertEquals(9.0, model.getPenalty("sales_fact_1997"), 1e-9);
+        assertFalse(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+
+        // Other stars keep the default.
+        assertTrue(model.shouldMerge("inventory_fact_1997", 1_000_000, 2));
+    }
+
+    @Test
+    void testExploresAfterRefusals() {
+        final BatchCostModel model = new BatchCostModel(1_000_000L);
+        model.recordQuery("sales_fact_1997", 1, 1_000_000, 101_000_000L);
+        model.recordQuery("sales_fact_1997", 2, 1_000_000, 1_001_000_000L);
+        for (int i = 1; i < BatchCostModel.EXPLORATION_INTERVAL; i++) {
+            assertFalse(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+        }
+        assertTrue(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+        assertFalse(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+
+        // The explored statement was fast, so merging pays again.
+        for (int i = 0; i < 20; i++) {
+            model.recordQuery("sales_fact_1997", 2, 1_000_000, 111_000_000L);
+        }
+        assertTrue(model.getPenalty("sales_fact_1997") < 1);
+        assertTrue(model.shouldMerge("sales_fact_1997", 1_000_000, 2));
+    }
+
+    @Test
+    void testMergesWhenGroupingSetsAreCheap() {
+        final BatchCostModel model = new BatchCostModel(1_000_000L);
+        model.recordQuery("sales_fact_1997", 1, 1_000_000, 101_000_000L);
+        model.recordQuery("sales_fact_1997", 3, 1_000_000, 141_000_000L);
+        assertEquals(0.2, model.getPenalty("sales_fact_1997"), 1e-9);
+        assertTrue(model.shouldMerge("sales_fact_1997", 1_000_000, 3));
+    }
+
+    @Test
+    void testUsesStatisticsForFactRows() {
+        final BatchCostModel model = new BatchCostModel(0);
+        model.recordQuery("sales_fact_1997", 1, 1000, 1000);
+        model.recordQuery("sales_fact_1997", 2, 1000, 3500);
+        // Penalty 2.5: merging 2 costs 3.5 scans against 2.
+        final StatisticsProvider statistics = mock(StatisticsProvider.class);
+        when(statistics.getTableCardinality(
+            any(), any(), any(), eq("sales_fact_1997"), any()))
+            .thenReturn(86837L);
+        assertFalse(model.shouldMerge(
+            statistics, mock(Context.class), null, null, "sales_fact_1997",
+            2, null));
+        verify(statistics).getTableCardinality(
+            any(), any(), any(), eq("sales_fact_1997"), any());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CellBatchSizeController}.
+ */
+class CellBatchSizeControllerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testGrowsWhileCheapAndShrinksWhenSlow() {
+        final CellBatchSizeController controller =
+            new CellBatchSizeController(100, 10_000, 1000, 1000, 1 << 20);
+        assertEquals(1000, controller.getBatchSize("Sales"));
+
+        controller.recordBatch("Sales", 1000, 50, 100 * MILLIS, 1000);
+        assertEquals(1500, controller.getBatchSize("Sales"));
+        controller.recordBatch("Sales", 1500, 80, 200 * MILLIS, 1000);
+        assertEquals(2250, controller.getBatchSize("Sales"));
+
+        // A batch that did not fill the size gives no reason to grow.
+        controller.recordBatch("Sales", 10, 10, 1 * MILLIS, 100);
+        assertEquals(2250, controller.getBatchSize("Sales"));
+
+        // Too slow, then too large.
+        controller.recordBatch("Sales", 2250, 900, 1500 * MILLIS, 1000);
+        assertEquals(1125, controller.getBatchSize("Sales"));
+        controller.recordBatch("Sales", 1125, 900, 100 * MILLIS, 2 << 20);
+        assertEquals(562, controller.getBatchSize("Sales"));
+
+        // Between the thresholds nothing changes.
+        controller.recordBatch("Sales", 562, 300, 700 * MILLIS, 1000);
+        assertEquals(562, controller.getBatchSize("Sales"));
+
+        assertEquals(Map.of("Sales", 562), controller.getBatchSizes());
+        assertEquals(1000, controller.getBatchSize("Warehouse"));
+    }
+
+    @Test
+    void testShrinksWhenRowsFarExceedCells() {
+        final CellBatchSizeController controller =
+            new CellBatchSizeController(100, 10_000, 1000, 1000, 1 << 20, 10);
+
+        // Fast and small, but 20 rows per requested cell.
+        controller.recordBatch("Sales", 1000, 20_000, 10 * MILLIS, 1000);
+        assertEquals(500, controller.getBatchSize("Sales"));
+
+        // Within the limit, but not well within: no reason to grow.
+        controller.recordBatch("Sales", 500, 4000, 10 * MILLIS, 1000);
+        assertEquals(500, controller.getBatchSize("Sales"));
+
+        controller.recordBatch("Sales", 500, 1000, 10 * MILLIS, 1000);
+        assertEquals(750, controller.getBatchSize("Sales"));
+    }
+
+    @Test
+    void testStaysWithinBounds() {
+        final CellBatchSizeController controller =
+            new CellBatchSizeController(100, 1200, 1000, 1000, 1 << 20);
+        controller.recordBatch("Sales", 1000, 1, 1, 1);
+        assertEquals(1200, controller.getBatchSize("Sales"));
+        for (int i = 0; i < 10; i++) {
+            controller.recordBatch("Sales", 1, 1, 5000 * MILLIS, 1);
+        }
+        assertEquals(100, controller.getBatchSize("Sales"));
+        controller.reset();
+        assertEquals(1000, controller.getBatchSize("Sales"));
+
+        assertEquals(
+            100, new CellBatchSizeController(5).getBatchSize("Sales"));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new CellBatchSizeController(10, 5, 7, 1000, 1000));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.rolap.agg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test that {@link DistinctValueSet} behaves like a {@link TreeSet}.
+ */
+class DistinctValueSetTest {
+
+    @Test
+    void testIntegers() {
+        Random random = new Random(1);
+        assertSameAsTreeSet(i -> random.nextInt(300) - 150);
+    }
+
+    @Test
+    void testLongs() {
+        Random random = new Random(2);
+        assertSameAsTreeSet(i -> random.nextInt(100000) * 1000000007L);
+    }
+
+    @Test
+    void testDoubles() {
+        Random random = new Random(3);
+        assertSameAsTreeSet(
+            i -> i % 97 == 0
+                ? -0.0
+                : i % 89 == 0 ? Double.NaN : random.nextInt(200) / 4.0);
+    }
+
+    @Test
+    void testStrings() {
+        Random random = new Random(4);
+        assertSameAsTreeSet(i -> "Store " + random.nextInt(1000));
+    }
+
+    @Test
+    void testOtherValuesFallBackToTreeSet() {
+        DistinctValueSet set = new DistinctValueSet();
+        set.add(new BigDecimal("2.5"));
+        set.add(new BigDecimal("1.0"));
+        set.add(new BigDecimal("2.5"));
+        assertEquals(
+            List.of(new BigDecimal("1.0"), new BigDecimal("2.5")),
+            new ArrayList<>(set));
+    }
+
+    @Test
+    void testRejectsWhatTreeSetRejects() {
+        DistinctValueSet set = new DistinctValueSet();
+        assertThrows(NullPointerException.class, () -> set.add(null));
+        set.add(1);
+        assertThrows(ClassCastException.class, () -> set.add(1L));
+    }
+
+    @Test
+    void testRemovalAndRangeViews() {
+        DistinctValueSet set = new DistinctValueSet();
+        set.add(1);
+        set.add(2);
+        set.add(3);
+        assertThrows(UnsupportedOperationException.class, () -> set.remove(2));
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> set.removeAll(List.of(4)));
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> {
+                Iterator<Comparable> iterator = set.iterator();
+                iterator.next();
+                iterator.remove();
+            });
+        assertEquals(3, set.size());
+
+        // Range views are copies: later values do not show in them, and
+        // they cannot be changed.
+        SortedSet<Comparable> head = set.headSet(3);
+        set.add(0);
+        assertEquals(List.of(1, 2), new ArrayList<>(head));
+        assertThrows(UnsupportedOperationException.class, () -> head.add(-1));
+        assertEquals(List.of(0, 1, 2), new ArrayList<>(set.headSet(3)));
+    }
+
+    @Test
+    void testWorkspace() {
+        SortedSet<Comparable>[] workspace = DistinctValueSet.workspace(3);
+        assertEquals(3, workspace.length);
+        workspace[0].add("F");
+        workspace[0].add("M");
+        workspace[0].add("F");
+        assertEquals("F", workspace[0].first());
+        assertEquals("M", workspace[0].last());
+        assertTrue(workspace[0].contains("M"));
+        assertFalse(workspace[0].contains(0));
+        assertTrue(workspace[1].isEmpty());
+    }
+
+    private static void assertSameAsTreeSet(IntFunction<Comparable> values) {
+        TreeSet<Comparable> expected = new TreeSet<>();
+        DistinctValueSet actual = new DistinctValueSet();
+        for (int i = 0; i < 20000; i++) {
+            Comparable value = values.apply(i);
+            assertEquals(expected.add(value), actual.add(value));
+            if (i % 5000 == 0) {
+                // Reading in between must not lose later values.
+                assertEquals(expected.first(), actual.first());
+            }
+        }
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.last(), actual.last());
+        assertEquals(expected.headSet(expected.last()), actual.headSet(actual.last()));
+        for (Comparable value : expected) {
+            assertTrue(actual.contains(value));
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.util.Optional;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.eclipse.daanse.jdbc.db.dialect.api.type.BestFitColumnType;
 import org.eclipse.daanse.olap.api.Context;
@@ -625,57 +626,67 @@ class SegmentLoaderTest extends BatchTestCase {
     {
         prepareContext(context);
         GroupingSet groupingSetsInfo = getDefaultGroupingSet(context.getConnectionWithDefaultRole());
-        final List<Object[]> data = new ArrayList<>();
-        data.add(new Object[]{"1997", "Food", "Deli", "F", "5990"});
-        data.add(new Object[]{"1997", "Food", "Deli", "M", "6047"});
-        data.add(new Object[]{"1997", "Food", "Canned_Products", "F", "867"});
-        final SqlStatement stmt =
-            new MockSqlStatement(
-                0,
-                new GroupingSetsList(
-                    Collections.singletonList(groupingSetsInfo)),
-                data);
-        SegmentLoader loader = new SegmentLoader(cacheMgr) {
-            @Override
-            public
-            SqlStatement createExecuteSql(
-                int cellRequestCount,
-                GroupingSetsList groupingSetsList,
-                List<StarPredicate> compoundPredicateList,
-                boolean useAggregates)
-            {
-                return stmt;
-            }
-        };
-        List<GroupingSet> groupingSets = new ArrayList<>();
-        groupingSets.add(groupingSetsInfo);
-
-        SortedSet<Comparable>[] axisValueSet =
-            loader.getDistinctValueWorkspace(4);
-        ExecutionContext.where(executionContext, () -> {
-        	SegmentLoader.RowList list;
-        	try {
-        		list = loader.processData(
-        				stmt,
-        				new boolean[4],
-        				axisValueSet,
-        				new GroupingSetsList(groupingSets));
-        		int totalNoOfRows = 3;
-        		assertEquals(totalNoOfRows, list.size());
-        		int lengthOfRowWithoutBitKey = 5;
-        		assertEquals(lengthOfRowWithoutBitKey, list.getTypes().size());
-        	} catch (SQLException e) {
-        		new RuntimeException(e.getMessage(), e);
-        	}
-        });
-        SortedSet<Comparable> yearAxis = axisValueSet[0];
-        assertEquals(1, yearAxis.size());
-        SortedSet<Comparable> productFamilyAxis = axisValueSet[1];
-        assertEquals(1, productFamilyAxis.size());
-        SortedSet<Comparable> productDepartmentAxis = axisValueSet[2];
-        assertEquals(2, productDepartmentAxis.size());
-        SortedSet<Comparable> genderAxis = axisValueSet[3];
-        assertEquals(2, genderAxis.size());
+        // The loader's TreeSet workspace and the primitive-keyed
+        // DistinctValueSet workspace must collect the same axis values.
+        final List<Function<SegmentLoader, SortedSet<Comparable>[]>> workspaces =
+            List.of(
+                loader -> loader.getDistinctValueWorkspace(4),
+                loader -> DistinctValueSet.workspace(4));
+        for (Function<SegmentLoader, SortedSet<Comparable>[]> workspace
+            : workspaces)
+        {
+            final List<Object[]> data = new ArrayList<>();
+            data.add(new Object[]{"1997", "Food", "Deli", "F", "5990"});
+            data.add(new Object[]{"1997", "Food", "Deli", "M", "6047"});
+            data.add(new Object[]{"1997", "Food", "Canned_Products", "F", "867"});
+            final SqlStatement stmt =
+                new MockSqlStatement(
+                    0,
+                    new GroupingSetsList(
+                        Collections.singletonList(groupingSetsInfo)),
+                    data);
+            SegmentLoader loader = new SegmentLoader(cacheMgr) {
+                @Override
+                public
+                SqlStatement createExecuteSql(
+                    int cellRequestCount,
+                    GroupingSetsList groupingSetsList,
+                    List<StarPredicate> compoundPredicateList,
+                    boolean useAggregates)
+                {
+                    return stmt;
+                }
+            };
+            List<GroupingSet> groupingSets = new ArrayList<>();
+            groupingSets.add(groupingSetsInfo);
+
+            SortedSet<Comparable>[] axisValueSet = workspace.apply(loader);
+            ExecutionContext.where(executionContext, () -> {
+                SegmentLoader.RowList list;
+                try {
+                    list = loader.processData(
+                            stmt,
+                            new boolean[4],
+                            axisValueSet,
+                            new GroupingSetsList(groupingSets));
+                    int totalNoOfRows = 3;
+                    assertEquals(totalNoOfRows, list.size());
+                    int lengthOfRowWithoutBitKey = 5;
+                    assertEquals(lengthOfRowWithoutBitKey, list.getTypes().size());
+                } catch (SQLException e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            });
+            SortedSet<Comparable> yearAxis = axisValueSet[0];
+            assertEquals(1, yearAxis.size());
+            SortedSet<Comparable> productFamilyAxis = axisValueSet[1];
+            assertEquals(1, productFamilyAxis.size());
+            SortedSet<Comparable> productDepartmentAxis = axisValueSet[2];
+            assertEquals(2, productDepartmentAxis.size());
+            assertEquals("Canned_Products", productDepartmentAxis.first());
+            SortedSet<Comparable> genderAxis = axisValueSet[3];
+            assertEquals(2, genderAxis.size());
+        }
     }
 
     private void verifyUnitSalesDetailed(SegmentWithData segment) {
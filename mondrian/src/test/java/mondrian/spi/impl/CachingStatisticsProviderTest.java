@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.eclipse.daanse.olap.spi.StatisticsProvider;
+import org.junit.jupiter.api.Test;
+
+import mondrian.spi.AsyncStatisticsProvider;
+
+/**
+ * Test for {@link CachingStatisticsProvider}.
+ */
+class CachingStatisticsProviderTest {
+
+    @Test
+    void testCachesPerTableAndColumn() {
+        Context context = mockContext();
+        CountingStatisticsProvider counting =
+            new CountingStatisticsProvider(42);
+        CachingStatisticsProvider provider =
+            new CachingStatisticsProvider(List.of(counting));
+
+        assertEquals(42, provider.getTableCardinality(
+            context, null, null, "customer", null));
+        assertEquals(42, provider.getTableCardinality(
+            context, null, null, "customer", null));
+        assertEquals(42, provider.getColumnCardinality(
+            context, null, null, "customer", "gender", null));
+        assertEquals(42, provider.getColumnCardinality(
+            context, null, null, "customer", "gender", null));
+        assertEquals(42, provider.getColumnCardinality(
+            context, null, null, "customer", "city", null));
+
+        assertEquals(3, counting.calls.get());
+        assertEquals(2, provider.getHitCount());
+        assertEquals(3, provider.getMissCount());
+
+        provider.invalidate(context);
+        provider.getTableCardinality(context, null, null, "customer", null);
+        assertEquals(4, counting.calls.get());
+    }
+
+    @Test
+    void testFallsThroughChain() {
+        Context context = mockContext();
+        CountingStatisticsProvider unknown =
+            new CountingStatisticsProvider(-1);
+        CountingStatisticsProvider known =
+            new CountingStatisticsProvider(7);
+        CachingStatisticsProvider provider =
+            new CachingStatisticsProvider(List.of(unknown, known));
+
+        assertEquals(7, provider.getColumnCardinality(
+            context, null, null, "store", "store_type", null));
+        assertEquals(7, provider.getColumnCardinality(
+            context, null, null, "store", "store_type", null));
+        assertEquals(1, unknown.calls.get());
+        assertEquals(1, known.calls.get());
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneProbe() throws Exception {
+        Context context = mockContext();
+        CountDownLatch release = new CountDownLatch(1);
+        CountingStatisticsProvider slow = new CountingStatisticsProvider(5) {
+            @Override
+            long answer() {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.answer();
+            }
+        };
+        CachingStatisticsProvider provider =
+            new CachingStatisticsProvider(List.of(slow));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = executor.invokeAll(
+                List.of(
+                    () -> provider.getTableCardinality(
+                        context, null, null, "sales_fact_1997", null),
+                    () -> provider.getTableCardinality(
+                        context, null, null, "sales_fact_1997", null),
+                    () -> provider.getTableCardinality(
+                        context, null, null, "sales_fact_1997", null),
+                    () -> {
+                        Thread.sleep(100);
+                        release.countDown();
+                        return provider.getTableCardinality(
+                            context, null, null, "sales_fact_1997", null);
+                    }));
+            for (Future<Long> future : futures) {
+                assertEquals(5L, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, slow.calls.get());
+        assertEquals(1, provider.getMissCount());
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        Context context = mockContext();
+        AtomicInteger calls = new AtomicInteger();
+        CountingStatisticsProvider failing =
+            new CountingStatisticsProvider(1) {
+                @Override
+                long answer() {
+                    if (calls.getAndIncrement() == 0) {
+                        throw new IllegalStateException("connection lost");
+                    }
+                    return super.answer();
+                }
+            };
+        CachingStatisticsProvider provider =
+            new CachingStatisticsProvider(List.of(failing));
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> provider.getTableCardinality(
+                context, null, null, "product", null));
+        assertEquals(1, provider.getTableCardinality(
+            context, null, null, "product", null));
+    }
+
+    @Test
+    void testAsyncLookupsShareProbe() {
+        Context context = mockContext();
+        CompletableFuture<Long> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        AsyncStatisticsProvider delegate = new AsyncStatisticsProvider() {
+            @Override
+            public CompletableFuture<Long> getColumnCardinalityAsync(
+                Context context,
+                String catalog,
+                String schema,
+                String table,
+                String column,
+                ExecutionImpl execution)
+            {
+                calls.incrementAndGet();
+                return pending;
+            }
+
+            @Override
+            public long getTableCardinality(
+                Context context,
+                String catalog,
+                String schema,
+                String table,
+                ExecutionImpl execution)
+            {
+                return -1;
+            }
+
+            @Override
+            public long getQueryCardinality(
+                Context context,
+                String sql,
+                ExecutionImpl execution)
+            {
+                return -1;
+            }
+
+            @Override
+            public long getColumnCardinality(
+                Context context,
+                String catalog,
+                String schema,
+                String table,
+                String column,
+                ExecutionImpl execution)
+            {
+                return -1;
+            }
+        };
+        CachingStatisticsProvider provider =
+            new CachingStatisticsProvider(delegate);
+
+        CompletableFuture<Long> first = provider.getColumnCardinalityAsync(
+            context, null, null, "customer", "gender", null);
+        CompletableFuture<Long> second = provider.getColumnCardinalityAsync(
+            context, null, null, "customer", "gender", null);
+        assertFalse(first.isDone());
+        pending.complete(2L);
+        assertEquals(2, first.join());
+        assertEquals(2, second.join());
+        assertEquals(2, provider.getColumnCardinality(
+            context, null, null, "customer", "gender", null));
+        assertEquals(1, calls.get());
+    }
+
+    static Context mockContext() {
+        Context context = mock(Context.class);
+        when(context.getConfigValue(anyString(), any(), any()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        return context;
+    }
+
+    /**
+     * Statistics provider that answers a fixed value and counts how often
+     * it was asked.
+     */
+    static class CountingStatisticsProvider implements StatisticsProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        private final long value;
+
+        CountingStatisticsProvider(long value) {
+            this.value = value;
+        }
+
+        long answer() {
+            calls.incrementAndGet();
+            return value;
+        }
+
+        @Override
+        public long getTableCardinality(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            ExecutionImpl execution)
+        {
+            return answer();
+        }
+
+        @Override
+        public long getQueryCardinality(
+            Context context,
+            String sql,
+            ExecutionImpl execution)
+        {
+            return answer();
+        }
+
+        @Override
+        public long getColumnCardinality(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            String column,
+            ExecutionImpl execution)
+        {
+            return answer();
+        }
+    }
+}
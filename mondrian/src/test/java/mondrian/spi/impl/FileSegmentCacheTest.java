@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static mondrian.spi.impl.OffHeapSegmentCacheTest.body;
+import static mondrian.spi.impl.OffHeapSegmentCacheTest.header;
+import static mondrian.spi.impl.OffHeapSegmentCacheTest.recorder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.eclipse.daanse.olap.util.ByteString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link FileSegmentCache}.
+ */
+class FileSegmentCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSegmentsSurviveRestart() {
+        final SegmentHeader header = header("Unit Sales");
+        final Object[] cells = {1, 2, null, 4};
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        final List<String> events = new ArrayList<>();
+        cache.addListener(recorder(events));
+        assertTrue(cache.put(header, body(cells)));
+        assertEquals(List.of("ENTRY_CREATED Unit Sales"), events);
+        cache.tearDown();
+
+        final FileSegmentCache restarted = new FileSegmentCache(directory);
+        assertEquals(List.of(header), restarted.getSegmentHeaders());
+        assertArrayEquals(
+            cells, (Object[]) restarted.get(header).getValueArray());
+    }
+
+    @Test
+    void testRemoveDeletesFile() throws IOException {
+        final SegmentHeader header = header("Unit Sales");
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        cache.put(header, body(new Object[] {1}));
+        assertEquals(1, fileCount());
+        assertTrue(cache.remove(header));
+        assertFalse(cache.remove(header));
+        assertNull(cache.get(header));
+        assertEquals(0, fileCount());
+        assertTrue(new FileSegmentCache(directory).getSegmentHeaders().isEmpty());
+    }
+
+    @Test
+    void testCorruptFilesAreDeleted() throws IOException {
+        final SegmentHeader header = header("Unit Sales");
+        new FileSegmentCache(directory).put(header, body(new Object[] {1, 2}));
+        final Path path;
+        try (var paths = Files.list(directory)) {
+            path = paths.findFirst().orElseThrow();
+        }
+        // Flip the last byte of the body.
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        assertEquals(List.of(header), cache.getSegmentHeaders());
+        assertNull(cache.get(header));
+        assertTrue(cache.getSegmentHeaders().isEmpty());
+        assertEquals(0, fileCount());
+
+        Files.write(directory.resolve("garbage.segment"), new byte[] {1, 2, 3});
+        assertTrue(new FileSegmentCache(directory).getSegmentHeaders().isEmpty());
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void testRetainCatalogs() throws IOException {
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        cache.put(header("Unit Sales"), body(new Object[] {1}));
+        cache.retainCatalogs(Set.of(new ByteString(new byte[] {42})));
+        assertTrue(cache.getSegmentHeaders().isEmpty());
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void testRetainCatalogsKeepsCurrentCatalog() throws IOException {
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        final SegmentHeader header = header("Unit Sales");
+        cache.put(header, body(new Object[] {1}));
+        cache.retainCatalogs(Set.of(header.schemaChecksum));
+        assertEquals(List.of(header), cache.getSegmentHeaders());
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    void testStaleSegmentsPrunedOnLoad() throws IOException {
+        final FileSegmentCache cache = new FileSegmentCache(directory);
+        final SegmentHeader unitSales = header("Unit Sales");
+        final SegmentHeader storeSales = header("Warehouse", "Store Sales");
+        cache.put(unitSales, body(new Object[] {1}));
+        cache.put(storeSales, body(new Object[] {2}));
+        cache.tearDown();
+
+        // Another catalog version: nothing matches.
+        final FileSegmentCache otherCatalog = new FileSegmentCache(
+            directory,
+            FileSegmentCache.ofCatalogs(Set.of(new ByteString(new byte[] {42}))),
+            Duration.ZERO);
+        assertTrue(otherCatalog.getSegmentHeaders().isEmpty());
+        assertEquals(0, fileCount());
+
+        cache.put(unitSales, body(new Object[] {1}));
+        cache.put(storeSales, body(new Object[] {2}));
+        try (var paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                Files.setLastModifiedTime(
+                    path,
+                    FileTime.fromMillis(
+                        System.currentTimeMillis()
+                            - TimeUnit.DAYS.toMillis(2)));
+            }
+        }
+        assertEquals(
+            2,
+            new FileSegmentCache(
+                directory,
+                FileSegmentCache.ofCatalogs(Set.of(unitSales.schemaChecksum)),
+                Duration.ofDays(3))
+                .getSegmentHeaders().size());
+        assertTrue(
+            new FileSegmentCache(
+                directory, header -> true, Duration.ofDays(1))
+                .getSegmentHeaders().isEmpty());
+        assertEquals(0, fileCount());
+    }
+
+    private long fileCount() throws IOException {
+        try (var paths = Files.list(directory)) {
+            return paths.count();
+        }
+    }
+}
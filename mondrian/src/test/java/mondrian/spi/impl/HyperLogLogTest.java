@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link HyperLogLog} and the sample scaling of
+ * {@link SqlStatisticsProvider}.
+ */
+class HyperLogLogTest {
+
+    @Test
+    void testSmallCardinalityIsExact() {
+        HyperLogLog sketch = HyperLogLog.forRelativeError(0.02);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(i % 2 == 0 ? "M" : "F");
+            sketch.add(null);
+        }
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    void testEstimateWithinErrorBound() {
+        HyperLogLog sketch = HyperLogLog.forRelativeError(0.01);
+        int distinct = 200_000;
+        for (int i = 0; i < distinct * 3; i++) {
+            sketch.add((long) (i % distinct));
+        }
+        double error =
+            Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        // three standard errors
+        assertTrue(error < 0.03, "relative error " + error);
+    }
+
+    @Test
+    void testIntegerAndLongHashAlike() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        sketch.add(42);
+        sketch.add(42L);
+        sketch.add((short) 42);
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void testMerge() {
+        HyperLogLog left = new HyperLogLog(14);
+        HyperLogLog right = new HyperLogLog(14);
+        for (int i = 0; i < 5000; i++) {
+            left.add("customer" + i);
+            right.add("customer" + (i + 2500));
+        }
+        left.merge(right);
+        double error = Math.abs(left.estimate() - 7500) / 7500.0;
+        assertTrue(error < 0.05, "relative error " + error);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> left.merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void testCopyFromRegisters() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 300; i++) {
+            sketch.add(i);
+        }
+        HyperLogLog copy = HyperLogLog.of(sketch.getRegisters());
+        assertEquals(sketch, copy);
+        assertEquals(sketch.estimate(), copy.estimate());
+        assertEquals(sketch, sketch.copy());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> HyperLogLog.of(new byte[1000]));
+    }
+
+    @Test
+    void testScaleSampledCardinality() {
+        // Every sampled value distinct: scales like the row count.
+        assertEquals(
+            100_000,
+            SqlStatisticsProvider.scaleSampledCardinality(
+                10_000, 10_000, 10.0));
+        // Two values in a large sample: stays at two.
+        assertEquals(
+            2,
+            SqlStatisticsProvider.scaleSampledCardinality(2, 10_000, 10.0));
+    }
+}
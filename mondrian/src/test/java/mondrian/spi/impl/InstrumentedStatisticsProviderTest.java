@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.junit.jupiter.api.Test;
+
+import mondrian.spi.impl.CachingStatisticsProviderTest.CountingStatisticsProvider;
+import mondrian.spi.impl.SqlStatisticsProviderTest.RecordingBatchProvider;
+
+/**
+ * Test for {@link InstrumentedStatisticsProvider} and
+ * {@link StatisticsMetrics}.
+ */
+class InstrumentedStatisticsProviderTest {
+
+    @Test
+    void testCountsCallsAndFallbacksPerProvider() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        InstrumentedStatisticsProvider provider =
+            new InstrumentedStatisticsProvider(
+                List.of(
+                    new CountingStatisticsProvider(-1),
+                    new RecordingBatchProvider()));
+
+        assertEquals(9, provider.getTableCardinality(
+            context, null, "foodmart", "customer", null));
+        assertArrayEquals(
+            new long[] {9, 9},
+            provider.getColumnCardinalities(
+                context, null, "foodmart", "customer",
+                List.of("gender", "city"), null));
+        assertEquals(9, provider.getColumnCardinalityAsync(
+            context, null, "foodmart", "store", "store_type", null).join());
+
+        // The batch of two columns is one call and one latency sample.
+        StatisticsMetrics metrics = StatisticsMetrics.of(context);
+        assertEquals(3, metrics.getCallCount("CountingStatisticsProvider"));
+        assertEquals(3, metrics.getFallbackCount("CountingStatisticsProvider"));
+        assertEquals(3, metrics.getCallCount("RecordingBatchProvider"));
+        assertEquals(3, metrics.getColumnCount("RecordingBatchProvider"));
+        assertEquals(0, metrics.getFallbackCount("RecordingBatchProvider"));
+        assertEquals(
+            3,
+            sum(metrics.getLatencyHistogram("RecordingBatchProvider")));
+        assertEquals(
+            List.of("foodmart.customer", "foodmart.store"),
+            metrics.getSlowestTables(10).stream().sorted().toList());
+        assertTrue(
+            metrics.report().contains(
+                "RecordingBatchProvider: calls=3, columns=3"),
+            metrics.report());
+    }
+
+    @Test
+    void testCountsFailures() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        InstrumentedStatisticsProvider provider =
+            new InstrumentedStatisticsProvider(
+                List.of(
+                    new CountingStatisticsProvider(0) {
+                        @Override
+                        long answer() {
+                            throw new IllegalStateException("no connection");
+                        }
+                    }));
+        assertThrows(
+            IllegalStateException.class,
+            () -> provider.getTableCardinality(
+                context, null, null, "customer", null));
+        StatisticsMetrics metrics = StatisticsMetrics.of(context);
+        assertEquals(1, metrics.report().lines()
+            .filter(line -> line.contains("failures=1")).count());
+        assertEquals(List.of("customer"), metrics.getSlowestTables(10));
+    }
+
+    @Test
+    void testBatchScansTableOnce() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        InstrumentedStatisticsProvider provider =
+            new InstrumentedStatisticsProvider(
+                List.of(new FixedSqlStatisticsProvider()));
+        provider.getTableCardinality(context, null, null, "customer", null);
+        provider.getColumnCardinalities(
+            context, null, null, "customer",
+            List.of("gender", "marital_status", "city"), null);
+
+        StatisticsMetrics metrics = StatisticsMetrics.of(context);
+        assertEquals(2, metrics.getCallCount("FixedSqlStatisticsProvider"));
+        assertEquals(3, metrics.getColumnCount("FixedSqlStatisticsProvider"));
+        // One scan for the row count, one for all three columns.
+        assertEquals(
+            2000, metrics.getRowsScanned("FixedSqlStatisticsProvider"));
+    }
+
+    @Test
+    void testLatencyBuckets() {
+        assertEquals(0, StatisticsMetrics.bucket(TimeUnit.MICROSECONDS.toNanos(300)));
+        assertEquals(2, StatisticsMetrics.bucket(TimeUnit.MILLISECONDS.toNanos(3)));
+        assertEquals(
+            StatisticsMetrics.BUCKET_BOUNDS_MILLIS.length,
+            StatisticsMetrics.bucket(TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    /**
+     * SQL provider, so counted as scanning, that answers without a
+     * database.
+     */
+    static class FixedSqlStatisticsProvider extends SqlStatisticsProvider {
+        @Override
+        public long getTableCardinality(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            ExecutionImpl execution)
+        {
+            return 1000;
+        }
+
+        @Override
+        public long[] getColumnCardinalities(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            List<String> columns,
+            ExecutionImpl execution)
+        {
+            return new long[] {2, 10, 400};
+        }
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link JdbcStatisticsProvider}.
+ */
+class JdbcStatisticsProviderTest {
+
+    @Test
+    void testOneMetadataCallPerTable() throws SQLException {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(context.getDataSource()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getIndexInfo(any(), any(), anyString(), anyBoolean(),
+            anyBoolean()))
+            .thenAnswer(invocation -> indexInfo(
+                new Object[] {DatabaseMetaData.tableIndexOther, 100, false, "customer_id"},
+                new Object[] {DatabaseMetaData.tableIndexOther, 2, true, "gender"},
+                new Object[] {DatabaseMetaData.tableIndexOther, 3, true, "gender"},
+                new Object[] {DatabaseMetaData.tableIndexStatistic, 10281, true, null}));
+
+        JdbcStatisticsProvider provider = new JdbcStatisticsProvider();
+        assertEquals(10281, provider.getTableCardinality(
+            context, null, null, "customer", null));
+        assertEquals(2, provider.getColumnCardinality(
+            context, null, null, "customer", "gender", null));
+        assertEquals(-1, provider.getColumnCardinality(
+            context, null, null, "customer", "city", null));
+        assertArrayEquals(
+            new long[] {100, 2, -1},
+            provider.getColumnCardinalities(
+                context, null, null, "customer",
+                List.of("customer_id", "gender", "city"), null));
+        verify(dataSource, times(1)).getConnection();
+
+        provider.getTableCardinality(context, null, null, "store", null);
+        verify(dataSource, times(2)).getConnection();
+
+        provider.invalidate(context);
+        provider.getTableCardinality(context, null, null, "customer", null);
+        verify(dataSource, times(3)).getConnection();
+    }
+
+    @Test
+    void testLargestNonUniqueIndexWithoutStatisticRow() throws SQLException {
+        ResultSet resultSet = indexInfo(
+            new Object[] {DatabaseMetaData.tableIndexOther, 500, false, "id"},
+            new Object[] {DatabaseMetaData.tableIndexHashed, 40, true, "city"},
+            new Object[] {DatabaseMetaData.tableIndexOther, 300, true, "name"});
+        JdbcStatisticsProvider.TableIndexInfo info =
+            JdbcStatisticsProvider.TableIndexInfo.of(resultSet);
+        assertEquals(300, info.tableCardinality());
+        assertEquals(40, info.columnCardinality("city"));
+    }
+
+    /**
+     * Creates a result set shaped like {@link DatabaseMetaData#getIndexInfo}
+     * from rows of type, cardinality, non-unique flag and column name.
+     */
+    private static ResultSet indexInfo(Object[]... rows) throws SQLException {
+        final int[] row = {-1};
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> ++row[0] < rows.length);
+        when(resultSet.getInt(7))
+            .thenAnswer(invocation -> ((Number) rows[row[0]][0]).intValue());
+        when(resultSet.getInt(11))
+            .thenAnswer(invocation -> ((Number) rows[row[0]][1]).intValue());
+        when(resultSet.getBoolean(4))
+            .thenAnswer(invocation -> rows[row[0]][2]);
+        when(resultSet.getString(9))
+            .thenAnswer(invocation -> rows[row[0]][3]);
+        return resultSet;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.daanse.olap.key.BitKey;
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.spi.SegmentCache;
+import org.eclipse.daanse.olap.spi.SegmentColumn;
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.eclipse.daanse.olap.util.ByteString;
+import org.eclipse.daanse.olap.util.Pair;
+import org.eclipse.daanse.rolap.common.agg.DenseObjectSegmentBody;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link OffHeapSegmentCache}.
+ */
+class OffHeapSegmentCacheTest {
+
+    @Test
+    void testPutGetRemove() {
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(1 << 20);
+        final List<String> events = new ArrayList<>();
+        cache.addListener(recorder(events));
+        final SegmentHeader header = header("Unit Sales");
+        final Object[] cells = {1, 2, null, 4};
+        assertTrue(cache.put(header, body(cells)));
+        assertArrayEquals(cells, (Object[]) cache.get(header).getValueArray());
+        assertEquals(List.of(header), cache.getSegmentHeaders());
+        assertTrue(cache.getByteSize() > 0);
+        assertEquals(
+            Map.of("dense-object/bitmap", cache.getByteSize()),
+            cache.getLayoutSizes());
+
+        assertTrue(cache.remove(header));
+        assertFalse(cache.remove(header));
+        assertNull(cache.get(header));
+        assertEquals(0, cache.getByteSize());
+        assertEquals(
+            List.of("ENTRY_CREATED Unit Sales", "ENTRY_DELETED Unit Sales"),
+            events);
+    }
+
+    @Test
+    void testEvictsToStayWithinBudget() {
+        final SegmentBody body = body(new Object[] {1, 2, 3, 4});
+        final int size = SegmentBodyCodec.encode(body).remaining();
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(size * 3L);
+        final List<String> events = new ArrayList<>();
+        cache.addListener(recorder(events));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cache.put(header("m" + i), body));
+        }
+        assertTrue(cache.getByteSize() <= size * 3L);
+        assertEquals(3, cache.getSegmentHeaders().size());
+        assertEquals(7, cache.getEvictionCount());
+        assertEquals(
+            7,
+            events.stream().filter(e -> e.startsWith("ENTRY_DELETED")).count());
+        // Every segment is reported created before it is reported deleted.
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).startsWith("ENTRY_DELETED")) {
+                final String measure = events.get(i).substring(14);
+                assertTrue(
+                    events.subList(0, i).contains("ENTRY_CREATED " + measure),
+                    events.toString());
+            }
+        }
+    }
+
+    @Test
+    void testRejectsSegmentLargerThanCache() {
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(8);
+        assertFalse(cache.put(header("Unit Sales"), body(new Object[] {1})));
+        assertTrue(cache.getSegmentHeaders().isEmpty());
+    }
+
+    @Test
+    void testCubeQuotaEvictsOnlyThatCube() {
+        final SegmentBody body = body(new Object[] {1, 2, 3, 4});
+        final long size = SegmentBodyCodec.encode(body).remaining();
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(
+            1 << 20, 1 << 20, Map.of("Sales", size * 2));
+        assertTrue(cache.put(header("Warehouse", "Units Shipped"), body));
+        assertTrue(cache.put(header("Warehouse", "Units Ordered"), body));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.put(header("Sales", "m" + i), body));
+        }
+        assertEquals(
+            Map.of("schema.Sales", size * 2, "schema.Warehouse", size * 2),
+            cache.getCubeSizes());
+        assertEquals(3, cache.getEvictionCount());
+        // The newest segment of the cube is kept.
+        assertTrue(cache.getSegmentHeaders().contains(header("Sales", "m4")));
+    }
+
+    @Test
+    void testCubeQuotaEvictsLeastRecentlyUsed() {
+        final SegmentBody body = body(new Object[] {1, 2, 3, 4});
+        final long size = SegmentBodyCodec.encode(body).remaining();
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(
+            1 << 20, 1 << 20, Map.of("Sales", size * 2));
+        assertTrue(cache.put(header("m0"), body));
+        assertTrue(cache.put(header("m1"), body));
+        assertNotNull(cache.get(header("m0")));
+        assertTrue(cache.put(header("m2"), body));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(header("m1")));
+        assertNotNull(cache.get(header("m0")));
+        assertNotNull(cache.get(header("m2")));
+
+        // A removed segment is no longer counted against the quota.
+        assertTrue(cache.remove(header("m0")));
+        assertTrue(cache.put(header("m3"), body));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(Map.of("schema.Sales", size * 2), cache.getCubeSizes());
+
+        // Putting a cached segment again replaces it without evicting the
+        // other segments of the cube.
+        assertTrue(cache.put(header("m2"), body));
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get(header("m3")));
+        assertEquals(Map.of("schema.Sales", size * 2), cache.getCubeSizes());
+    }
+
+    @Test
+    void testCubeQuotaHoldsUnderConcurrentPuts() throws Exception {
+        final SegmentBody body = body(new Object[] {1, 2, 3, 4});
+        final long size = SegmentBodyCodec.encode(body).remaining();
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(
+            1 << 20, 1 << 20, Map.of("Sales", size * 3));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        cache.put(header("m" + thread + "-" + i), body);
+                        assertTrue(
+                            cache.getCubeSizes().get("schema.Sales")
+                                <= size * 3);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3, cache.getSegmentHeaders().size());
+        assertEquals(Map.of("schema.Sales", size * 3), cache.getCubeSizes());
+    }
+
+    @Test
+    void testSegmentSizeLimit() {
+        final SegmentBody small = body(new Object[] {1});
+        final Object[] cells = new Object[1000];
+        Arrays.fill(cells, 7.5);
+        final SegmentBody large = body(cells);
+        final long limit = SegmentBodyCodec.encode(small).remaining();
+        final OffHeapSegmentCache cache =
+            new OffHeapSegmentCache(1 << 20, limit, Map.of());
+        assertTrue(cache.put(header("Unit Sales"), small));
+        assertFalse(cache.put(header("Store Sales"), large));
+        assertEquals(List.of(header("Unit Sales")), cache.getSegmentHeaders());
+    }
+
+    @Test
+    void testParseCubeQuotas() {
+        assertEquals(
+            Map.of("FoodMart.Sales", 1024L, "Warehouse", 2048L, "*", 512L),
+            OffHeapSegmentCache.parseCubeQuotas(
+                "FoodMart.Sales=1024, Warehouse=2048,*=512,bad,x=y"));
+        assertTrue(OffHeapSegmentCache.parseCubeQuotas("").isEmpty());
+    }
+
+    static SegmentCache.SegmentCacheListener recorder(
+        List<String> events)
+    {
+        return event -> events.add(
+            event.getEventType() + " " + event.getSource().measureName);
+    }
+
+    static SegmentBody body(Object[] cells) {
+        final SortedSet<Comparable> values = new TreeSet<>();
+        for (int i = 0; i < cells.length; i++) {
+            values.add(i);
+        }
+        return new DenseObjectSegmentBody(
+            cells, List.of(Pair.of(values, false)));
+    }
+
+    static SegmentHeader header(String measureName) {
+        return header("Sales", measureName);
+    }
+
+    static SegmentHeader header(String cubeName, String measureName) {
+        return new SegmentHeader(
+            "schema",
+            new ByteString(new byte[0]),
+            cubeName,
+            measureName,
+            Collections.<SegmentColumn>emptyList(),
+            Collections.<String>emptyList(),
+            "sales_fact_1997",
+            BitKey.Factory.makeBitKey(3),
+            Collections.<SegmentColumn>emptyList());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.opencube.junit5.ContextSource;
+import org.opencube.junit5.dataloader.FastFoodmardDataLoader;
+import org.opencube.junit5.dbprovider.H2DatabaseProvider;
+import org.opencube.junit5.dbprovider.MySqlDatabaseProvider;
+import org.opencube.junit5.propupdator.AppandFoodMartCatalog;
+
+/**
+ * Test for {@link OptimizerStatisticsProvider}.
+ */
+class OptimizerStatisticsProviderTest {
+
+    @ParameterizedTest
+    @ContextSource(
+        propertyUpdater = AppandFoodMartCatalog.class,
+        dataloader = FastFoodmardDataLoader.class,
+        database = {H2DatabaseProvider.class, MySqlDatabaseProvider.class})
+    void testCardinalitiesFromOptimizerStatistics(Context<?> context) {
+        OptimizerStatisticsProvider provider =
+            new OptimizerStatisticsProvider();
+
+        long rowCount = provider.getTableCardinality(
+            context, null, null, "customer", null);
+        assertTrue(
+            rowCount > 5000 && rowCount < 20000,
+            "Row count estimate: " + rowCount + " (actual 10281)");
+
+        // H2 keeps no distinct counts; MySQL has one for the indexed column.
+        long valueCount = provider.getColumnCardinality(
+            context, null, null, "sales_fact_1997", "customer_id", null);
+        assertTrue(
+            valueCount == -1 || valueCount > 1000 && valueCount < 20000,
+            "Value count estimate: " + valueCount + " (actual 5581)");
+
+        assertEquals(-1, provider.getTableCardinality(
+            context, null, null, "no_such_table", null));
+        assertEquals(-1, provider.getQueryCardinality(
+            context, "select * from customer", null));
+    }
+
+    @Test
+    void testCatalogQueries() {
+        OptimizerStatisticsProvider.CatalogQuery query =
+            OptimizerStatisticsProvider.generateTableCardinalityQuery(
+                SqlStatisticsProviderTest.mockDialect("POSTGRES"),
+                null, "foodmart", "customer");
+        assertEquals(
+            "select c.reltuples from pg_class c"
+                + " join pg_namespace n on n.oid = c.relnamespace"
+                + " where n.nspname = ? and c.relname = ?",
+            query.sql());
+        assertEquals(List.of("foodmart", "customer"), query.parameters());
+
+        query = OptimizerStatisticsProvider.generateColumnCardinalityQuery(
+            SqlStatisticsProviderTest.mockDialect("MYSQL"),
+            null, "customer", "gender");
+        assertEquals(
+            "select max(CARDINALITY) from information_schema.STATISTICS"
+                + " where TABLE_SCHEMA = database()"
+                + " and TABLE_NAME = ? and COLUMN_NAME = ?"
+                + " and SEQ_IN_INDEX = 1",
+            query.sql());
+        assertEquals(List.of("customer", "gender"), query.parameters());
+
+        assertNull(
+            OptimizerStatisticsProvider.generateTableCardinalityQuery(
+                SqlStatisticsProviderTest.mockDialect("ACCESS"),
+                null, null, "customer"));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.opencube.junit5.ContextSource;
+import org.opencube.junit5.dataloader.FastFoodmardDataLoader;
+import org.opencube.junit5.dbprovider.H2DatabaseProvider;
+import org.opencube.junit5.propupdator.AppandFoodMartCatalog;
+
+import mondrian.spi.impl.CachingStatisticsProviderTest.CountingStatisticsProvider;
+
+/**
+ * Test for {@link PersistentStatisticsProvider} and
+ * {@link StatisticsSnapshot}.
+ */
+class PersistentStatisticsProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWarmRestartDoesNotProbe() {
+        Context context = mockContext();
+        CountingStatisticsProvider cold = new CountingStatisticsProvider(1234);
+        PersistentStatisticsProvider provider =
+            new PersistentStatisticsProvider(cold);
+        assertEquals(1234, provider.getTableCardinality(
+            context, null, "foodmart", "customer", null));
+        assertEquals(1234, provider.getColumnCardinality(
+            context, null, "foodmart", "customer", "gender", null));
+        assertEquals(1234, provider.getColumnCardinality(
+            context, null, "foodmart", "customer", "gender", null));
+        assertEquals(2, cold.calls.get());
+        provider.flush();
+        assertTrue(
+            Files.isRegularFile(directory.resolve("FoodMart-foodmart.stats")));
+
+        // A new provider, as after a restart, answers from the snapshot.
+        CountingStatisticsProvider warm = new CountingStatisticsProvider(0);
+        PersistentStatisticsProvider restarted =
+            new PersistentStatisticsProvider(warm);
+        assertEquals(1234, restarted.getTableCardinality(
+            context, null, "foodmart", "customer", null));
+        assertEquals(1234, restarted.getColumnCardinality(
+            context, null, "foodmart", "customer", "gender", null));
+        assertEquals(0, warm.calls.get());
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        Path path = directory.resolve("snapshot.stats");
+        StatisticsSnapshot snapshot = StatisticsSnapshot.load(path);
+        assertEquals(0, snapshot.size());
+        snapshot.put(
+            StatisticsKey.ofTable("cat", null, "sales_fact_1997"), 86837, 1L);
+        snapshot.put(
+            StatisticsKey.ofColumn(null, "sé", "product", "brand_name"),
+            111,
+            2L);
+        snapshot.save();
+
+        StatisticsSnapshot loaded = StatisticsSnapshot.load(path);
+        assertEquals(2, loaded.size());
+        assertEquals(
+            new StatisticsSnapshot.Entry(86837, 1L),
+            loaded.get(StatisticsKey.ofTable("cat", null, "sales_fact_1997")));
+        assertEquals(
+            new StatisticsSnapshot.Entry(111, 2L),
+            loaded.get(
+                StatisticsKey.ofColumn(null, "sé", "product", "brand_name")));
+    }
+
+    @ParameterizedTest
+    @ContextSource(
+        propertyUpdater = AppandFoodMartCatalog.class,
+        dataloader = FastFoodmardDataLoader.class,
+        database = H2DatabaseProvider.class)
+    void testCountsOnlyRowsAboveHighWaterMark(Context<?> context)
+        throws Exception
+    {
+        final DataSource dataSource = context.getDataSource();
+        final org.eclipse.daanse.olap.api.connection.Connection connection =
+            context.getConnectionWithDefaultRole();
+        try {
+            final ExecutionImpl execution = new ExecutionImpl(
+                connection.getInternalStatement(), Optional.empty());
+            execute(
+                dataSource,
+                "create table \"hwm_sales\" (\"id\" int)",
+                "insert into \"hwm_sales\" values (1), (2), (3)");
+            final HighWaterMark.Count full = HighWaterMark.countAll(
+                context, null, null, "hwm_sales", "id", execution);
+            assertEquals(3, full.rows());
+            assertEquals(
+                new HighWaterMark("id", new BigDecimal("3")),
+                full.highWaterMark());
+
+            // Row 1 is below the high-water mark, so its deletion goes
+            // unnoticed: only the two new rows are counted.
+            execute(
+                dataSource,
+                "delete from \"hwm_sales\" where \"id\" = 1",
+                "insert into \"hwm_sales\" values (4), (5)");
+            final HighWaterMark.Count delta = full.highWaterMark().countAfter(
+                context, null, null, "hwm_sales", execution);
+            assertEquals(2, delta.rows());
+            assertEquals(
+                new HighWaterMark("id", new BigDecimal("5")),
+                delta.highWaterMark());
+
+            final HighWaterMark.Count none = delta.highWaterMark().countAfter(
+                context, null, null, "hwm_sales", execution);
+            assertEquals(0, none.rows());
+            assertNull(none.highWaterMark());
+        } finally {
+            execute(dataSource, "drop table if exists \"hwm_sales\"");
+            connection.close();
+        }
+    }
+
+    @Test
+    void testHighWaterMarkEncoding() {
+        HighWaterMark number =
+            new HighWaterMark("id", new BigDecimal("86837"));
+        assertEquals(number, HighWaterMark.decode(number.encode()));
+        HighWaterMark timestamp = new HighWaterMark(
+            "load:time", Timestamp.valueOf("2026-10-17 23:59:59.5"));
+        assertEquals(timestamp, HighWaterMark.decode(timestamp.encode()));
+        assertEquals(
+            "select count(*), max(\"id\") from \"foodmart\".\"sales\""
+                + " where \"id\" > 86837",
+            HighWaterMark.generateCountSql(
+                SqlStatisticsProviderTest.mockDialect("H2"),
+                null, "foodmart", "sales", "id", number));
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws Exception {
+        Path path = directory.resolve("corrupt.stats");
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertEquals(0, StatisticsSnapshot.load(path).size());
+
+        // A valid header followed by a string length beyond the end of the
+        // file must not allocate that length.
+        final ByteBuffer header = ByteBuffer.allocate(16)
+            .putInt(StatisticsSnapshot.MAGIC)
+            .putInt(StatisticsSnapshot.FORMAT_VERSION)
+            .putInt(1)
+            .putInt(Integer.MAX_VALUE);
+        Files.write(path, header.array());
+        assertEquals(0, StatisticsSnapshot.load(path).size());
+    }
+
+    private static void execute(DataSource dataSource, String... sqls)
+        throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private Context mockContext() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        when(context.getName()).thenReturn("FoodMart");
+        when(context.getConfigValue(
+            eq(PersistentStatisticsProvider.DIRECTORY), any(), any()))
+            .thenReturn(directory.toString());
+        return context;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.eclipse.daanse.olap.key.CellKey;
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.util.Pair;
+import org.eclipse.daanse.rolap.common.agg.DenseDoubleSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.DenseIntSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.DenseObjectSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.SparseSegmentBody;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SegmentBodyCodec} and {@link ColumnarSegmentBody}.
+ */
+class SegmentBodyCodecTest {
+
+    @Test
+    void testDenseObjectRoundTrip() {
+        final Object[] cells = new Object[8];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i % 5 == 0 ? null : new BigDecimal(i * 1000 + ".25");
+        }
+        final SegmentBody body = new DenseObjectSegmentBody(cells, axes());
+        final SegmentBody decoded =
+            SegmentBodyCodec.decode(SegmentBodyCodec.encode(body));
+        assertArrayEquals(cells, (Object[]) decoded.getValueArray());
+        assertAxesEqual(body, decoded);
+    }
+
+    @Test
+    void testDenseDoubleAndIntRoundTrip() {
+        final BitSet nulls = new BitSet();
+        nulls.set(3);
+        final double[] doubles = new double[8];
+        final int[] ints = new int[8];
+        for (int i = 0; i < 8; i++) {
+            doubles[i] = i == 3 ? 0 : i * 1.5;
+            ints[i] = i == 3 ? 0 : 100000 + i * 7;
+        }
+        final SegmentBody doubleBody =
+            new DenseDoubleSegmentBody(nulls, doubles, axes());
+        final SegmentBody decodedDoubles =
+            SegmentBodyCodec.decode(SegmentBodyCodec.encode(doubleBody));
+        assertArrayEquals(doubles, (double[]) decodedDoubles.getValueArray());
+        assertEquals(nulls, decodedDoubles.getNullValueIndicators());
+        assertAxesEqual(doubleBody, decodedDoubles);
+
+        final SegmentBody intBody = new DenseIntSegmentBody(nulls, ints, axes());
+        final SegmentBody decodedInts =
+            SegmentBodyCodec.decode(SegmentBodyCodec.encode(intBody));
+        assertArrayEquals(ints, (int[]) decodedInts.getValueArray());
+        assertEquals(nulls, decodedInts.getNullValueIndicators());
+    }
+
+    @Test
+    void testSparseRoundTrip() {
+        final Map<CellKey, Object> cells = new HashMap<>();
+        cells.put(CellKey.Generator.newCellKey(new int[] {0, 2}), 10.5);
+        cells.put(CellKey.Generator.newCellKey(new int[] {1, 0}), 3.0);
+        cells.put(CellKey.Generator.newCellKey(new int[] {1, 3}), 7.25);
+        final SegmentBody body = new SparseSegmentBody(cells, axes());
+        final SegmentBody decoded =
+            SegmentBodyCodec.decode(SegmentBodyCodec.encode(body));
+        assertEquals(cells, decoded.getValueMap());
+        assertAxesEqual(body, decoded);
+    }
+
+    @Test
+    void testWideSparseRoundTrip() {
+        // 1000^7 cells do not fit a long, so cells have no position.
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes =
+            new ArrayList<>();
+        final SortedSet<Comparable> keys = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+        }
+        for (int a = 0; a < 7; a++) {
+            axes.add(Pair.of(keys, a == 6));
+        }
+        final Map<CellKey, Object> cells = new HashMap<>();
+        cells.put(
+            CellKey.Generator.newCellKey(new int[] {999, 1, 2, 3, 4, 5, 999}),
+            "wide");
+        cells.put(
+            CellKey.Generator.newCellKey(new int[] {0, 0, 0, 0, 0, 0, 1000}),
+            42);
+        cells.put(
+            CellKey.Generator.newCellKey(new int[] {500, 999, 0, 7, 0, 0, 0}),
+            7.5);
+        final SegmentBody body = new SparseSegmentBody(cells, axes);
+        final ByteBuffer encoded = SegmentBodyCodec.encode(body);
+        assertEquals(
+            "sparse/coordinates", SegmentBodyCodec.layoutOf(encoded));
+        final SegmentBody decoded = SegmentBodyCodec.decode(encoded);
+        assertEquals(cells, decoded.getValueMap());
+        assertAxesEqual(body, decoded);
+    }
+
+    @Test
+    void testCellStorageFollowsDensity() {
+        final SortedSet<Comparable> keys = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+        }
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes = List.of(
+            Pair.of(keys, false),
+            Pair.of(new TreeSet<>(List.of("F", "M")), true));
+
+        // Almost empty dense body: only the present cells are written.
+        final Object[] cells = new Object[3000];
+        cells[1234] = 5;
+        cells[2999] = 6;
+        final SegmentBody dense = new DenseObjectSegmentBody(cells, axes);
+        final ByteBuffer encodedDense = SegmentBodyCodec.encode(dense);
+        assertEquals(
+            "dense-object/coordinates",
+            SegmentBodyCodec.layoutOf(encodedDense));
+        assertArrayEquals(
+            cells,
+            (Object[]) SegmentBodyCodec.decode(encodedDense).getValueArray());
+
+        // Full sparse body: one bit per cell.
+        final Map<CellKey, Object> full = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < 3; j++) {
+                full.put(CellKey.Generator.newCellKey(new int[] {i, j}), i + j);
+            }
+        }
+        final SegmentBody sparse = new SparseSegmentBody(full, axes);
+        final ByteBuffer encodedSparse = SegmentBodyCodec.encode(sparse);
+        assertEquals(
+            "sparse/bitmap", SegmentBodyCodec.layoutOf(encodedSparse));
+        assertEquals(
+            full, SegmentBodyCodec.decode(encodedSparse).getValueMap());
+    }
+
+    @Test
+    void testValueColumns() {
+        assertRoundTrip(List.of(-5, 0, 3, 1 << 20));
+        assertRoundTrip(List.of(7, -3, 7, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertRoundTrip(List.of(Long.MIN_VALUE, 0L, Long.MAX_VALUE));
+        assertRoundTrip(List.of("Alameda", "Albany", "Anacortes", "😀a", "😁"));
+        assertRoundTrip(List.of("F", "M", "F", "F", "M"));
+        assertRoundTrip(Arrays.asList("mixed", 1, null));
+        assertRoundTrip(List.of());
+    }
+
+    @Test
+    void testSmallerThanJavaSerialization() throws Exception {
+        final Object[] cells = new Object[4 * 500];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i % 2;
+        }
+        final SortedSet<Comparable> years = new TreeSet<>(List.of(1997, 1998, 1999, 2000));
+        final SortedSet<Comparable> stores = new TreeSet<>();
+        for (int i = 0; i < 500; i++) {
+            stores.add("Store " + i);
+        }
+        final SegmentBody body = new DenseObjectSegmentBody(
+            cells, List.of(Pair.of(years, false), Pair.of(stores, false)));
+        final ColumnarSegmentBody columnar = ColumnarSegmentBody.of(body);
+        final int serialized = serialize(body).length;
+        assertTrue(
+            columnar.getEncodedSize() * 4 < serialized,
+            columnar.getEncodedSize() + " vs " + serialized);
+
+        final ColumnarSegmentBody copy = (ColumnarSegmentBody)
+            new ObjectInputStream(
+                new ByteArrayInputStream(serialize(columnar))).readObject();
+        assertEquals(columnar.getEncodedSize(), copy.getEncodedSize());
+        assertArrayEquals(cells, (Object[]) copy.getValueArray());
+        assertAxesEqual(body, copy);
+    }
+
+    @Test
+    void testSketchValues() throws Exception {
+        final Object[] cells = new Object[6];
+        for (int i = 0; i < cells.length; i++) {
+            final HyperLogLog sketch = HyperLogLog.forRelativeError(0.02);
+            for (int customer = 0; customer < 100 * i; customer++) {
+                sketch.add(customer);
+            }
+            cells[i] = sketch;
+        }
+        final SegmentBody body = new DenseObjectSegmentBody(cells, axes());
+        final ByteBuffer encoded = SegmentBodyCodec.encode(body);
+        assertArrayEquals(
+            cells, (Object[]) SegmentBodyCodec.decode(encoded).getValueArray());
+        assertTrue(
+            encoded.remaining() * 2 < serialize(body).length,
+            encoded.remaining() + " vs " + serialize(body).length);
+    }
+
+    @Test
+    void testRejectsForeignBytes() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SegmentBodyCodec.decode(ByteBuffer.wrap(new byte[] {1, 2})));
+    }
+
+    private static void assertRoundTrip(List<?> values) {
+        final SegmentBodyCodec.Output out = new SegmentBodyCodec.Output();
+        SegmentBodyCodec.writeValues(out, values);
+        assertEquals(
+            values,
+            SegmentBodyCodec.readValues(
+                new SegmentBodyCodec.Input(out.toByteBuffer())));
+    }
+
+    private static void assertAxesEqual(SegmentBody expected, SegmentBody actual) {
+        assertArrayEquals(expected.getAxisValueSets(), actual.getAxisValueSets());
+        assertArrayEquals(expected.getNullAxisFlags(), actual.getNullAxisFlags());
+    }
+
+    private static List<Pair<SortedSet<Comparable>, Boolean>> axes() {
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes = new ArrayList<>();
+        axes.add(Pair.of(new TreeSet<>(List.of("F", "M")), false));
+        axes.add(Pair.of(new TreeSet<>(List.of(1997, 1998, 1999)), true));
+        return axes;
+    }
+
+    private static byte[] serialize(Object object) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
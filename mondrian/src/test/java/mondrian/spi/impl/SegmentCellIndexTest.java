@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.eclipse.daanse.olap.key.CellKey;
+import org.eclipse.daanse.olap.util.Pair;
+import org.eclipse.daanse.rolap.common.agg.DenseDoubleSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.DenseObjectSegmentBody;
+import org.eclipse.daanse.rolap.common.agg.SparseSegmentBody;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SegmentCellIndex}.
+ */
+class SegmentCellIndexTest {
+
+    @Test
+    void testDenseLookupByOrdinals() {
+        // gender {F, M} x year {1997, 1998, 1999, null}
+        final double[] values = new double[8];
+        final BitSet nulls = new BitSet(8);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 1.5;
+        }
+        nulls.set(3);
+        final SegmentCellIndex index = SegmentCellIndex.of(
+            new DenseDoubleSegmentBody(nulls, values, axes()));
+
+        final int[] ordinals = {1, 2};
+        assertEquals(6, index.key(ordinals));
+        assertEquals(9.0, index.get(ordinals));
+        assertFalse(index.isNull(6));
+        assertEquals(9.0, index.getDouble(6));
+        assertTrue(index.isNull(index.key(0, 3)));
+        assertNull(index.get(0, 3));
+        assertEquals(-1, index.key(2, 0));
+        assertNull(index.get(2, 0));
+
+        final Object[] objects = {"a", null, "c", "d", "e", "f", "g", "h"};
+        final ColumnarSegmentBody columnar = ColumnarSegmentBody.of(
+            new DenseObjectSegmentBody(objects, axes()));
+        assertEquals("g", columnar.get(1, 2));
+        assertNull(columnar.get(0, 1));
+    }
+
+    @Test
+    void testSparseLookupByPackedKey() {
+        final Map<CellKey, Object> cells = new HashMap<>();
+        cells.put(CellKey.Generator.newCellKey(new int[] {0, 3}), 42);
+        cells.put(CellKey.Generator.newCellKey(new int[] {1, 0}), 7);
+        final SegmentCellIndex index =
+            SegmentCellIndex.of(new SparseSegmentBody(cells, axes()));
+
+        assertEquals(42, index.get(0, 3));
+        assertEquals(7, index.get(index.key(1, 0)));
+        assertNull(index.get(1, 1));
+        assertNull(index.get(-1));
+    }
+
+    @Test
+    void testWideSparseFallsBackToCellKeys() {
+        // 1000^7 cells do not fit a long.
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes =
+            new ArrayList<>();
+        final SortedSet<Comparable> keys = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+        }
+        for (int a = 0; a < 7; a++) {
+            axes.add(Pair.of(keys, false));
+        }
+        final int[] ordinals = {999, 1, 2, 3, 4, 5, 999};
+        final Map<CellKey, Object> cells = new HashMap<>();
+        cells.put(CellKey.Generator.newCellKey(ordinals.clone()), "wide");
+        final SegmentCellIndex index =
+            SegmentCellIndex.of(new SparseSegmentBody(cells, axes));
+
+        assertEquals(-1, index.key(ordinals));
+        assertEquals("wide", index.get(ordinals));
+        assertNull(index.get(0, 0, 0, 0, 0, 0, 0));
+    }
+
+    private static List<Pair<SortedSet<Comparable>, Boolean>> axes() {
+        final List<Pair<SortedSet<Comparable>, Boolean>> axes = new ArrayList<>();
+        axes.add(Pair.of(new TreeSet<>(List.of("F", "M")), false));
+        axes.add(Pair.of(new TreeSet<>(List.of(1997, 1998, 1999)), true));
+        return axes;
+    }
+}
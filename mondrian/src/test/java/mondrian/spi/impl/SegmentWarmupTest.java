@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static mondrian.spi.impl.OffHeapSegmentCacheTest.body;
+import static mondrian.spi.impl.OffHeapSegmentCacheTest.header;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.daanse.olap.spi.SegmentBody;
+import org.eclipse.daanse.olap.spi.SegmentCache;
+import org.eclipse.daanse.olap.spi.SegmentHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link SegmentWarmup}.
+ */
+class SegmentWarmupTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWarmsMostUsedSegmentsAfterRestart() throws Exception {
+        final SegmentHeader unitSales = header("Unit Sales");
+        final SegmentHeader storeSales = header("Store Sales");
+        final SegmentHeader storeCost = header("Store Cost");
+        final SegmentBody body = body(new Object[] {1, 2, 3});
+        final Path file = directory.resolve("warmup");
+        final long window = TimeUnit.HOURS.toMillis(1);
+
+        final SegmentWarmup warmup = new SegmentWarmup(file, window);
+        final SegmentCache recording = warmup.recording(
+            new FileSegmentCache(directory.resolve("segments")));
+        recording.put(unitSales, body);
+        recording.put(storeSales, body);
+        recording.put(storeCost, body);
+        for (int i = 0; i < 3; i++) {
+            recording.get(storeSales);
+        }
+        recording.get(unitSales);
+        assertNull(recording.get(header("Sales Count")));
+        assertEquals(List.of(storeSales, unitSales), warmup.getHotSegments());
+        warmup.save();
+
+        // After a restart, only the disk cache holds the segments.
+        final SegmentWarmup restarted = new SegmentWarmup(file, window);
+        assertEquals(List.of(storeSales, unitSales), restarted.getHotSegments());
+        final FileSegmentCache source =
+            new FileSegmentCache(directory.resolve("segments"));
+        final OffHeapSegmentCache target = new OffHeapSegmentCache(1 << 20);
+        final SegmentWarmup.Progress progress =
+            restarted.warm(source, target, Long.MAX_VALUE, 1000);
+        progress.getFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(2, progress.getTotal());
+        assertEquals(2, progress.getWarmed());
+        assertEquals(2, target.getSegmentHeaders().size());
+        assertTrue(target.getSegmentHeaders().contains(storeSales));
+        assertTrue(target.getSegmentHeaders().contains(unitSales));
+    }
+
+    @Test
+    void testBudgetStopsWarmup() throws Exception {
+        final SegmentBody body = body(new Object[] {1, 2, 3});
+        final long size = SegmentBodyCodec.encode(body).remaining();
+        final FileSegmentCache source =
+            new FileSegmentCache(directory.resolve("segments"));
+        final SegmentWarmup warmup =
+            new SegmentWarmup(directory.resolve("warmup"), 60000);
+        for (int i = 0; i < 5; i++) {
+            source.put(header("m" + i), body);
+            warmup.recordHit(header("m" + i));
+        }
+        final OffHeapSegmentCache target = new OffHeapSegmentCache(1 << 20);
+        final SegmentWarmup.Progress progress =
+            warmup.warm(source, target, size * 2, 1000);
+        progress.getFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(2, progress.getWarmed());
+        assertEquals(size * 2, progress.getBytes());
+        assertEquals(2, target.getSegmentHeaders().size());
+    }
+
+    @Test
+    void testForgetsSegmentsOutsideWindow() throws Exception {
+        final SegmentWarmup warmup =
+            new SegmentWarmup(directory.resolve("warmup"), 500);
+        for (int i = 0; i < 1000; i++) {
+            warmup.recordHit(header("m" + i));
+        }
+        assertEquals(1000, warmup.size());
+        // Caffeine expires entries in steps of about a second.
+        Thread.sleep(2500);
+
+        // Expired usages are dropped without anyone asking for the hot
+        // segments.
+        warmup.recordHit(header("Unit Sales"));
+        assertEquals(1, warmup.size());
+        assertEquals(List.of(header("Unit Sales")), warmup.getHotSegments());
+    }
+
+    @Test
+    void testRejectsRateThatIsNotPositive() {
+        final SegmentWarmup warmup =
+            new SegmentWarmup(directory.resolve("warmup"), 60000);
+        final OffHeapSegmentCache cache = new OffHeapSegmentCache(1 << 20);
+        for (double rate : new double[] {0, -1, Double.NaN}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> warmup.warm(cache, cache, Long.MAX_VALUE, rate));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   SmartCity Jena - initial
+ */
+package mondrian.spi.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.daanse.jdbc.db.dialect.api.Dialect;
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.execution.ExecutionImpl;
+import org.junit.jupiter.api.Test;
+
+import mondrian.spi.BatchStatisticsProvider;
+import mondrian.spi.impl.CachingStatisticsProviderTest.CountingStatisticsProvider;
+
+/**
+ * Test for the SQL generated by {@link SqlStatisticsProvider} and for
+ * batched cardinality lookups.
+ */
+class SqlStatisticsProviderTest {
+
+    @Test
+    void testMultipleCountDistinctInOneStatement() {
+        Dialect dialect = mockDialect(
+            "MYSQL", "allowsCountDistinct", "allowsMultipleCountDistinct");
+        assertEquals(
+            "select count(distinct \"gender\"), count(distinct \"city\")"
+                + " from \"customer\"",
+            SqlStatisticsProvider.generateColumnCardinalitiesSql(
+                dialect, null, "customer", List.of("gender", "city")));
+    }
+
+    @Test
+    void testGroupingSetsWhenOnlyOneCountDistinct() {
+        Dialect dialect = mockDialect(
+            "ORACLE",
+            "allowsCountDistinct",
+            "supportsGroupingSets",
+            "allowsFromQuery");
+        assertEquals(
+            "select count(case when \"g0\" = 0 and \"gender\" is not null"
+                + " then 1 end), count(case when \"g1\" = 0 and \"city\""
+                + " is not null then 1 end) from (select \"gender\","
+                + " \"city\", grouping(\"gender\") as \"g0\","
+                + " grouping(\"city\") as \"g1\" from \"customer\""
+                + " group by grouping sets ((\"gender\"), (\"city\")))",
+            SqlStatisticsProvider.generateColumnCardinalitiesSql(
+                dialect, null, "customer", List.of("gender", "city")));
+    }
+
+    @Test
+    void testNoSingleStatementWithoutSupport() {
+        Dialect dialect = mockDialect("ACCESS", "allowsFromQuery");
+        assertNull(
+            SqlStatisticsProvider.generateColumnCardinalitiesSql(
+                dialect, null, "customer", List.of("gender", "city")));
+    }
+
+    @Test
+    void testApproximateCountDistinct() {
+        assertEquals(
+            "select APPROX_COUNT_DISTINCT(\"gender\"),"
+                + " APPROX_COUNT_DISTINCT(\"city\") from \"customer\"",
+            SqlStatisticsProvider.generateApproximateColumnCardinalitySql(
+                mockDialect("oracle"), null, "customer",
+                List.of("gender", "city")));
+        assertNull(
+            SqlStatisticsProvider.generateApproximateColumnCardinalitySql(
+                mockDialect("MYSQL"), null, "customer", List.of("gender")));
+        assertEquals(
+            " TABLESAMPLE SYSTEM (2.5)",
+            SqlStatisticsProvider.tableSampleClause(
+                mockDialect("POSTGRES"), 2.5));
+    }
+
+    @Test
+    void testSampleOnlyWithTableSample() {
+        assertEquals(
+            "select \"gender\", \"city\" from \"customer\""
+                + " TABLESAMPLE SYSTEM (10.0)",
+            SqlStatisticsProvider.generateSampleSql(
+                mockDialect("POSTGRES"), null, "customer",
+                List.of("gender", "city"), 10));
+        assertEquals(
+            "select \"gender\" from \"customer\"",
+            SqlStatisticsProvider.generateSampleSql(
+                mockDialect("MYSQL"), null, "customer",
+                List.of("gender"), 100));
+        // No random sample: the leading rows are no substitute, so the
+        // column is counted exactly.
+        assertNull(
+            SqlStatisticsProvider.generateSampleSql(
+                mockDialect("MYSQL"), null, "customer",
+                List.of("gender"), 10));
+    }
+
+    @Test
+    void testChainAsksOnlyForUnknownColumns() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        RecordingBatchProvider first = new RecordingBatchProvider() {
+            @Override
+            public long getColumnCardinality(
+                Context context,
+                String catalog,
+                String schema,
+                String table,
+                String column,
+                ExecutionImpl execution)
+            {
+                return column.equals("gender") ? 2 : -1;
+            }
+        };
+        RecordingBatchProvider second = new RecordingBatchProvider();
+        ChainStatisticsProvider chain =
+            new ChainStatisticsProvider(List.of(first, second));
+        assertArrayEquals(
+            new long[] {2, 9, 9},
+            chain.getColumnCardinalities(
+                context, null, null, "customer",
+                List.of("gender", "city", "state_province"), null));
+        assertEquals(List.of("gender", "city", "state_province"),
+            first.requested);
+        assertEquals(List.of("city", "state_province"), second.requested);
+
+        CachingStatisticsProvider caching =
+            new CachingStatisticsProvider(chain);
+        caching.getColumnCardinality(
+            context, null, null, "customer", "city", null);
+        second.requested = null;
+        assertArrayEquals(
+            new long[] {2, 9, 9},
+            caching.getColumnCardinalities(
+                context, null, null, "customer",
+                List.of("gender", "city", "state_province"), null));
+        assertEquals(List.of("state_province"), second.requested);
+    }
+
+    @Test
+    void testAsyncProbesBoundedByConnectionBudget() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        when(context.getConfigValue(
+            eq(StatisticsExecutors.MAX_CONCURRENT_QUERIES), any(), any()))
+            .thenReturn(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        SqlStatisticsProvider provider = new SqlStatisticsProvider() {
+            @Override
+            public long getTableCardinality(
+                Context context,
+                String catalog,
+                String schema,
+                String table,
+                ExecutionImpl execution)
+            {
+                maxRunning.accumulateAndGet(
+                    running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return table.length();
+            }
+        };
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(
+                provider.getTableCardinalityAsync(
+                    context, null, null, "t" + "x".repeat(i), null));
+        }
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i + 1, futures.get(i).join());
+        }
+        assertTrue(maxRunning.get() <= 2, "max running " + maxRunning);
+
+        // The chain falls through asynchronously, too.
+        ChainStatisticsProvider chain = new ChainStatisticsProvider(
+            List.of(new CountingStatisticsProvider(-1), provider));
+        assertEquals(
+            8,
+            chain.getTableCardinalityAsync(
+                context, null, null, "customer", null).join());
+    }
+
+    @Test
+    void testChainRunsSynchronousProvidersOffCallingThread() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        List<Thread> threads = new ArrayList<>();
+        ChainStatisticsProvider chain = new ChainStatisticsProvider(
+            List.of(
+                new CountingStatisticsProvider(-1) {
+                    @Override
+                    long answer() {
+                        threads.add(Thread.currentThread());
+                        return super.answer();
+                    }
+                },
+                new CountingStatisticsProvider(7)));
+        assertEquals(
+            7,
+            chain.getColumnCardinalityAsync(
+                context, null, null, "customer", "gender", null).join());
+        assertEquals(1, threads.size());
+        assertTrue(threads.get(0) != Thread.currentThread());
+    }
+
+    @Test
+    void testEmptyChainAnswersUnknown() {
+        Context context = CachingStatisticsProviderTest.mockContext();
+        ChainStatisticsProvider chain = new ChainStatisticsProvider(List.of());
+        assertEquals(
+            -1, chain.getTableCardinality(context, null, null, "customer", null));
+        assertEquals(
+            -1,
+            chain.getTableCardinalityAsync(
+                context, null, null, "customer", null).join());
+    }
+
+    /**
+     * Creates a dialect with the given name that quotes identifiers with
+     * double quotes and answers true only for the given capability methods.
+     */
+    static Dialect mockDialect(String name, String... capabilities) {
+        final Set<String> enabled = Set.of(capabilities);
+        return mock(Dialect.class, invocation -> {
+            final String method = invocation.getMethod().getName();
+            final Object[] arguments = invocation.getRawArguments();
+            if (method.equals("name")) {
+                return name;
+            }
+            if (method.equals("quoteIdentifier")) {
+                if (arguments[0] instanceof StringBuilder buf) {
+                    String separator = "";
+                    for (Object part : (Object[]) arguments[1]) {
+                        if (part != null) {
+                            buf.append(separator)
+                                .append('"').append(part).append('"');
+                            separator = ".";
+                        }
+                    }
+                    return null;
+                }
+                return "\"" + arguments[0] + "\"";
+            }
+            if (invocation.getMethod().getReturnType() == boolean.class) {
+                return enabled.contains(method);
+            }
+            return RETURNS_DEFAULTS.answer(invocation);
+        });
+    }
+
+    /**
+     * Batch provider that knows every column and records the last batch it
+     * was asked for.
+     */
+    static class RecordingBatchProvider
+        extends CountingStatisticsProvider
+        implements BatchStatisticsProvider
+    {
+        List<String> requested;
+
+        RecordingBatchProvider() {
+            super(9);
+        }
+
+        @Override
+        public long[] getColumnCardinalities(
+            Context context,
+            String catalog,
+            String schema,
+            String table,
+            List<String> columns,
+            ExecutionImpl execution)
+        {
+            requested = columns;
+            return BatchStatisticsProvider.super.getColumnCardinalities(
+                context, catalog, schema, table, columns, execution);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import static mondrian.enums.DatabaseProduct.getDatabaseProduct;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.Date;
@@ -30,7 +31,16 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -389,117 +399,300 @@ public class DataLoaderUtil {
 		}
 	}
 
+	/**
+	 * Number of rows sent to the database in one JDBC batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 5000;
+
+	/**
+	 * CSV files larger than this are inserted over several connections.
+	 */
+	public static final long PARALLEL_THRESHOLD_BYTES = 4L * 1024 * 1024;
+
+	/**
+	 * Number of connections a large CSV file is inserted over.
+	 */
+	public static final int PARALLEL_CONNECTIONS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	public static void importCSV(DataSource dataSource, Dialect dialect, List<Table> tables, Path csvDir)
 			throws SQLException {
-        CsvReader.CsvReaderBuilder builder = CsvReader.builder()
+		importCSV(dataSource, dialect, tables, csvDir, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Loads each table from the CSV file of the same name in {@code csvDir}.
+	 *
+	 * <p>
+	 * Tables are loaded in parallel. Rows are streamed from the file and sent
+	 * in batches of {@code batchSize} rows, each committed on its own, so a
+	 * table is never held in memory as a whole. Rows of a file larger than
+	 * {@link #PARALLEL_THRESHOLD_BYTES} are split into batches that are
+	 * inserted over {@link #PARALLEL_CONNECTIONS} connections. The column
+	 * parsers are chosen once per table.
+	 *
+	 * <p>
+	 * The first failing batch stops the load of its table, and the rows
+	 * already committed are deleted, so a table is either loaded completely
+	 * or left empty.
+	 */
+	public static void importCSV(DataSource dataSource, Dialect dialect, List<Table> tables, Path csvDir,
+			int batchSize) throws SQLException {
+		CsvReader.CsvReaderBuilder builder = CsvReader.builder()
             .fieldSeparator(',')
             .quoteCharacter('"')
             .skipEmptyLines(true)
             .commentCharacter('#')
             .ignoreDifferentFieldCount(false);
 
-
 		tables.parallelStream().forEach(table -> {
-			try (Connection connection = dataSource.getConnection();) {
-				System.out.println("+" + table.tableName);
+			System.out.println("+" + table.tableName);
+
+			Path p = csvDir.resolve(table.tableName + ".csv");
+
+			if (!p.toFile().exists()) {
+				System.out.println("file does not exist-" + table.tableName);
+				return;
+			}
+			try {
+				long start = System.currentTimeMillis();
+				int connections = Files.size(p) > PARALLEL_THRESHOLD_BYTES ? PARALLEL_CONNECTIONS : 1;
+				long rows = importCSV(dataSource, dialect, table, builder, p, batchSize, connections);
+				long millis = Math.max(1, System.currentTimeMillis() - start);
+				System.out.println(table.tableName + ": " + rows + " rows in " + millis + " ms, "
+						+ (rows * 1000 / millis) + " rows/s, " + connections + " connection(s)");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	private static long importCSV(DataSource dataSource, Dialect dialect, Table table,
+			CsvReader.CsvReaderBuilder builder, Path p, int batchSize, int connections) throws Exception {
+		final String insertSql = insertSQL(table, dialect);
+		final Binder[] binders = new Binder[table.columns.length];
+		for (int c = 0; c < binders.length; c++) {
+			binders[c] = binder(table.columns[c].type);
+		}
+		final ExecutorService executor = connections > 1 ? Executors.newFixedThreadPool(connections) : null;
+		final BlockingQueue<Connection> pool = new ArrayBlockingQueue<>(connections);
+		final List<Connection> opened = new ArrayList<>(connections);
+		final List<Future<?>> pending = new ArrayList<>();
+		boolean loaded = false;
+		long rows = 0;
+		try {
+			for (int c = 0; c < connections; c++) {
+				Connection connection = dataSource.getConnection();
+				opened.add(connection);
+				connection.setAutoCommit(false);
+				pool.add(connection);
+			}
+			try (CloseableIterator<NamedCsvRecord> it = builder.ofNamedCsvRecord(p).iterator()) {
+				if (!it.hasNext()) {
+					throw new IllegalStateException("No header found");
+				}
+				int[] fieldIndexes = null;
+				List<String[]> chunk = new ArrayList<>(batchSize);
+				while (it.hasNext()) {
+					NamedCsvRecord r = it.next();
+					if (fieldIndexes == null) {
+						fieldIndexes = fieldIndexes(table, r.getHeader());
+					}
+					String[] fields = new String[fieldIndexes.length];
+					for (int c = 0; c < fields.length; c++) {
+						fields[c] = r.getField(fieldIndexes[c]);
+					}
+					chunk.add(fields);
+					if (chunk.size() == batchSize) {
+						rows += chunk.size();
+						submit(executor, pool, pending, insertSql, binders, chunk);
+						chunk = new ArrayList<>(batchSize);
+					}
+				}
+				if (!chunk.isEmpty()) {
+					rows += chunk.size();
+					submit(executor, pool, pending, insertSql, binders, chunk);
+				}
+			}
+			for (Future<?> future : pending) {
+				future.get();
+			}
+			loaded = true;
+			return rows;
+		} finally {
+			if (executor != null) {
+				// Wait for the batches in flight, which still use their connections.
+				executor.shutdownNow();
+				try {
+					executor.awaitTermination(1, TimeUnit.MINUTES);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (!loaded && !opened.isEmpty()) {
+				deleteRows(opened.get(0), dialect, table);
+			}
+			for (Connection connection : opened) {
+				try {
+					connection.setAutoCommit(true);
+					connection.close();
+				} catch (SQLException e) {
+					// ignore
+				}
+			}
+		}
+	}
 
-				Path p = csvDir.resolve(table.tableName + ".csv");
+	/**
+	 * Deletes the rows a failed load has already committed.
+	 */
+	private static void deleteRows(Connection connection, Dialect dialect, Table table) {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("DELETE FROM " + dialect.quoteIdentifier(table.schemaName, table.tableName));
+			connection.commit();
+		} catch (SQLException e) {
+			System.out.println("could not delete partially loaded rows of " + table.tableName + ": " + e);
+		}
+	}
 
-				if (!p.toFile().exists()) {
-					System.out.println("file does not exist-" + table.tableName);
+	/**
+	 * Inserts a chunk of rows on a free connection of the pool: on the calling
+	 * thread if there is no executor, otherwise on the executor. At most one
+	 * chunk per connection is in flight, so the reader blocks instead of
+	 * buffering the whole file. Throws the failure of a chunk inserted
+	 * before, so that reading stops at the first failure.
+	 */
+	private static void submit(ExecutorService executor, BlockingQueue<Connection> pool, List<Future<?>> pending,
+			String insertSql, Binder[] binders, List<String[]> chunk) throws Exception {
+		Connection connection = pool.take();
+		for (Iterator<Future<?>> it = pending.iterator(); it.hasNext();) {
+			Future<?> future = it.next();
+			if (future.isDone()) {
+				it.remove();
+				try {
+					future.get();
+				} catch (Exception e) {
+					pool.add(connection);
+					throw e;
+				}
+			}
+		}
+		if (executor == null) {
+			try {
+				insert(connection, insertSql, binders, chunk);
+			} finally {
+				pool.add(connection);
+			}
+			return;
+		}
+		pending.add(executor.submit(() -> {
+			try {
+				insert(connection, insertSql, binders, chunk);
+			} finally {
+				pool.add(connection);
+			}
+			return null;
+		}));
+	}
 
+	private static void insert(Connection connection, String insertSql, Binder[] binders, List<String[]> chunk)
+			throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+			for (String[] fields : chunk) {
+				for (int c = 0; c < binders.length; c++) {
+					binders[c].bind(ps, c + 1, fields[c]);
 				}
+				ps.addBatch();
+			}
+			ps.executeBatch();
+			connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		}
+	}
 
-//				if (table.tableName.startsWith("agg_")) {
-//					//aggregation tables are calculated
-//					//TODO: also load them
-//					return;
-//				}
-                try (CloseableIterator<NamedCsvRecord> it = builder.ofNamedCsvRecord(p).iterator()) {
-                    if (!it.hasNext()) {
-                        throw new IllegalStateException("No header found");
-                    }
-                    PreparedStatement ps = null;
-                    boolean first = true;
-                    while (it.hasNext()) {
-                        NamedCsvRecord r = it.next();
-                        if (first) {
-                            first = false;
-                            List<String> headers = r.getHeader();
-
-                            StringBuilder b = new StringBuilder();
-                            b.append("INSERT INTO ");
-                            b.append(dialect.quoteIdentifier(table.schemaName, table.tableName));
-                            b.append(" ( ");
-                            b.append(headers.stream().map(h -> dialect.quoteIdentifier(h)).collect(Collectors.joining(",")));
-                            b.append(" ) VALUES ");
-                            b.append(" ( ");
-                            b.append(headers.stream().map(h -> "?").collect(Collectors.joining(",")));
-                            b.append(" ) ");
-                            ps = connection.prepareStatement(b.toString());
-                            ps.getConnection().setAutoCommit(false);
-
-                        } else {
-                         //   ps.clearParameters();
-                        }
-                        int i = 1;
-                        for (Column col : table.columns) {
-                            String field = r.getField(col.name);
-                            if (field == null || field.equals("NULL")) {
-                                ps.setObject(i, null);
-                            } else if (col.type.equals(DataLoaderUtil.Type.Bigint)) {
-                                ps.setLong(i, field.equals("") ? 0l : Long.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Boolean)) {
-                                ps.setBoolean(i, field.equals("") ? Boolean.FALSE : Boolean.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Currency)) {
-                                ps.setDouble(i, field.equals("") ? 0.0 : Double.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Date)) {
-                                ps.setDate(i, Date.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Integer)) {
-                                ps.setInt(i, field.equals("") ? 0 : Integer.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Real)) {
-                                ps.setDouble(i, field.equals("") ? 0.0 : Double.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Smallint)) {
-                                ps.setShort(i, field.equals("") ? 0 : Short.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Timestamp)) {
-                                ps.setTimestamp(i, Timestamp.valueOf(field));
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Varchar255)) {
-                                ps.setString(i, field);
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Varchar30)) {
-                                ps.setString(i, field);
-
-                            } else if (col.type.equals(DataLoaderUtil.Type.Varchar60)) {
-                                ps.setString(i, field);
-                            }
-
-                            i++;
-                        }
-                        ps.addBatch();
-                    }
-
-                    long start = System.currentTimeMillis();
-                    System.out.println("---");
-                    ps.executeBatch();
-                    System.out.println(System.currentTimeMillis() - start);
-
-                    connection.commit();
-                    System.out.println(System.currentTimeMillis() - start);
-                    connection.setAutoCommit(true);
-                }
-			} catch (Exception e) {
-				e.printStackTrace();
+	private static String insertSQL(Table table, Dialect dialect) {
+		StringBuilder b = new StringBuilder();
+		b.append("INSERT INTO ");
+		b.append(dialect.quoteIdentifier(table.schemaName, table.tableName));
+		b.append(" ( ");
+		b.append(Stream.of(table.columns).map(c -> dialect.quoteIdentifier(c.name)).collect(Collectors.joining(",")));
+		b.append(" ) VALUES ");
+		b.append(" ( ");
+		b.append(Stream.of(table.columns).map(c -> "?").collect(Collectors.joining(",")));
+		b.append(" ) ");
+		return b.toString();
+	}
+
+	/**
+	 * Returns the position in the CSV header of each column of the table.
+	 */
+	private static int[] fieldIndexes(Table table, List<String> header) {
+		int[] indexes = new int[table.columns.length];
+		for (int c = 0; c < indexes.length; c++) {
+			indexes[c] = header.indexOf(table.columns[c].name);
+			if (indexes[c] < 0) {
+				throw new IllegalStateException(
+						"Column " + table.columns[c].name + " not found in CSV header of " + table.tableName);
 			}
+		}
+		return indexes;
+	}
 
-		});
+	/**
+	 * Sets a CSV field as parameter of a prepared statement.
+	 */
+	@FunctionalInterface
+	interface Binder {
+		void bind(PreparedStatement ps, int index, String field) throws SQLException;
+	}
+
+	/**
+	 * Returns the binder for a column type. {@code NULL} fields are bound as
+	 * SQL null; empty numeric and boolean fields as zero and false.
+	 */
+	static Binder binder(Type type) {
+		final Binder binder;
+		final int sqlType;
+		if (type.equals(Type.Bigint)) {
+			sqlType = Types.BIGINT;
+			binder = (ps, i, field) -> ps.setLong(i, field.isEmpty() ? 0L : Long.parseLong(field));
+		} else if (type.equals(Type.Boolean)) {
+			sqlType = Types.BOOLEAN;
+			binder = (ps, i, field) -> ps.setBoolean(i, !field.isEmpty() && Boolean.parseBoolean(field));
+		} else if (type.equals(Type.Currency)) {
+			sqlType = Types.DECIMAL;
+			binder = (ps, i, field) -> ps.setDouble(i, field.isEmpty() ? 0.0 : Double.parseDouble(field));
+		} else if (type.equals(Type.Date)) {
+			sqlType = Types.DATE;
+			binder = (ps, i, field) -> ps.setDate(i, Date.valueOf(field));
+		} else if (type.equals(Type.Integer)) {
+			sqlType = Types.INTEGER;
+			binder = (ps, i, field) -> ps.setInt(i, field.isEmpty() ? 0 : Integer.parseInt(field));
+		} else if (type.equals(Type.Real)) {
+			sqlType = Types.REAL;
+			binder = (ps, i, field) -> ps.setDouble(i, field.isEmpty() ? 0.0 : Double.parseDouble(field));
+		} else if (type.equals(Type.Smallint)) {
+			sqlType = Types.SMALLINT;
+			binder = (ps, i, field) -> ps.setShort(i, field.isEmpty() ? 0 : Short.parseShort(field));
+		} else if (type.equals(Type.Timestamp)) {
+			sqlType = Types.TIMESTAMP;
+			binder = (ps, i, field) -> ps.setTimestamp(i, Timestamp.valueOf(field));
+		} else if (type.equals(Type.Varchar255) || type.equals(Type.Varchar30) || type.equals(Type.Varchar60)) {
+			sqlType = Types.VARCHAR;
+			binder = PreparedStatement::setString;
+		} else {
+			// Unknown type: leave the parameter to the driver.
+			sqlType = Types.VARCHAR;
+			binder = PreparedStatement::setObject;
+		}
+		return (ps, i, field) -> {
+			if (field == null || field.equals("NULL")) {
+				ps.setNull(i, sqlType);
+			} else {
+				binder.bind(ps, i, field);
+			}
+		};
 	}
 
 	public static void executeSql(Connection connection, List<String> sqls, boolean paralel) throws SQLException {